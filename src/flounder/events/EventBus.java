@@ -0,0 +1,153 @@
+package flounder.events;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A typed publish/subscribe bus. Producers post event objects, and on dispatch each posted event is handed to the listeners subscribed to its class or any of its super types.
+ * Unlike {@link IEvent}s nothing is polled, so the cost of a dispatch is only related to how many events were posted.
+ * Events can be posted from any thread, subscriptions and dispatches should only be made from the main thread.
+ */
+public class EventBus {
+	private static final IEventListener<?>[] NO_LISTENERS = new IEventListener<?>[0];
+
+	private Map<Class<?>, List<IEventListener<?>>> listeners;
+	private Map<Class<?>, IEventListener<?>[]> resolved;
+	private Queue<Object> posted;
+	private List<Object> dispatching;
+
+	/**
+	 * Creates a new event bus.
+	 */
+	public EventBus() {
+		this.listeners = new HashMap<>();
+		this.resolved = new HashMap<>();
+		this.posted = new ConcurrentLinkedQueue<>();
+		this.dispatching = new ArrayList<>();
+	}
+
+	/**
+	 * Subscribes a listener to a type of event, the listener will also receive events of sub types.
+	 *
+	 * @param type The class of events to listen for.
+	 * @param listener The listener to add.
+	 * @param <T> The type of event.
+	 */
+	public <T> void subscribe(Class<T> type, IEventListener<? super T> listener) {
+		listeners.computeIfAbsent(type, k -> new ArrayList<>()).add(listener);
+		resolved.clear();
+	}
+
+	/**
+	 * Unsubscribes a listener from a type of event.
+	 *
+	 * @param type The class of events the listener was subscribed to.
+	 * @param listener The listener to remove.
+	 * @param <T> The type of event.
+	 */
+	public <T> void unsubscribe(Class<T> type, IEventListener<? super T> listener) {
+		List<IEventListener<?>> list = listeners.get(type);
+
+		if (list != null && list.remove(listener)) {
+			if (list.isEmpty()) {
+				listeners.remove(type);
+			}
+
+			resolved.clear();
+		}
+	}
+
+	/**
+	 * Posts a event, it will be handed to its listeners on the next {@link #dispatch()}. This can be called from any thread.
+	 *
+	 * @param event The event to post.
+	 */
+	public void post(Object event) {
+		if (event != null) {
+			posted.offer(event);
+		}
+	}
+
+	/**
+	 * Hands every posted event to its listeners, in the order they were posted. Events posted by listeners are dispatched on the next call.
+	 */
+	public void dispatch() {
+		Object next;
+
+		while ((next = posted.poll()) != null) {
+			dispatching.add(next);
+		}
+
+		for (Object event : dispatching) {
+			for (IEventListener<?> listener : getListeners(event.getClass())) {
+				deliver(listener, event);
+			}
+		}
+
+		dispatching.clear();
+	}
+
+	/**
+	 * Hands a event to a listener. The listener was subscribed to the event's class or one of its super types, so it accepts the event.
+	 *
+	 * @param listener The listener.
+	 * @param event The event.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void deliver(IEventListener<?> listener, Object event) {
+		((IEventListener<Object>) listener).onEvent(event);
+	}
+
+	/**
+	 * Gets all listeners for a class of event, including listeners of its super types. The result is cached until the subscriptions change.
+	 *
+	 * @param type The class of event.
+	 *
+	 * @return The listeners for the event.
+	 */
+	private IEventListener<?>[] getListeners(Class<?> type) {
+		IEventListener<?>[] result = resolved.get(type);
+
+		if (result == null) {
+			List<IEventListener<?>> found = new ArrayList<>();
+			Set<Class<?>> visited = new HashSet<>();
+			Deque<Class<?>> search = new ArrayDeque<>();
+			search.add(type);
+
+			while (!search.isEmpty()) {
+				Class<?> current = search.poll();
+
+				if (!visited.add(current)) {
+					continue;
+				}
+
+				List<IEventListener<?>> list = listeners.get(current);
+
+				if (list != null) {
+					found.addAll(list);
+				}
+
+				if (current.getSuperclass() != null) {
+					search.add(current.getSuperclass());
+				}
+
+				search.addAll(Arrays.asList(current.getInterfaces()));
+			}
+
+			result = found.isEmpty() ? NO_LISTENERS : found.toArray(new IEventListener<?>[found.size()]);
+			resolved.put(type, result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Removes all listeners and posted events.
+	 */
+	public void clear() {
+		listeners.clear();
+		resolved.clear();
+		posted.clear();
+		dispatching.clear();
+	}
+}
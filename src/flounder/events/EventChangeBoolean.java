@@ -0,0 +1,63 @@
+package flounder.events;
+
+/**
+ * A change listener for a boolean value, unlike {@link EventChange} the value is never boxed so nothing is allocated when polled.
+ */
+public abstract class EventChangeBoolean implements IEvent {
+	private BooleanReference reference;
+	private boolean current;
+	private boolean read;
+
+	/**
+	 * Creates a new boolean change event.
+	 *
+	 * @param reference The reference to listen to.
+	 */
+	public EventChangeBoolean(BooleanReference reference) {
+		this.reference = reference;
+		this.read = false;
+	}
+
+	@Override
+	public boolean eventTriggered() {
+		boolean newValue = reference.get();
+
+		if (read && newValue == current) {
+			return false;
+		}
+
+		current = newValue;
+		read = true;
+		return true;
+	}
+
+	@Override
+	public void onEvent() {
+		onEvent(current);
+	}
+
+	@Override
+	public boolean removeAfterEvent() {
+		return false;
+	}
+
+	/**
+	 * A implementation of IEvents onEvent but passes the new value.
+	 *
+	 * @param newValue The new value.
+	 */
+	public abstract void onEvent(boolean newValue);
+
+	/**
+	 * A reference to a boolean value.
+	 */
+	@FunctionalInterface
+	public interface BooleanReference {
+		/**
+		 * Gets the value.
+		 *
+		 * @return The value.
+		 */
+		boolean get();
+	}
+}
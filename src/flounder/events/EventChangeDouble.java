@@ -0,0 +1,75 @@
+package flounder.events;
+
+/**
+ * A change listener for a double value, unlike {@link EventChange} the value is never boxed so nothing is allocated when polled.
+ */
+public abstract class EventChangeDouble implements IEvent {
+	private DoubleReference reference;
+	private double epsilon;
+	private double current;
+	private boolean read;
+
+	/**
+	 * Creates a new double change event, any change is detected.
+	 *
+	 * @param reference The reference to listen to.
+	 */
+	public EventChangeDouble(DoubleReference reference) {
+		this(reference, 0.0);
+	}
+
+	/**
+	 * Creates a new double change event, that only detects changes larger than a threshold.
+	 *
+	 * @param reference The reference to listen to.
+	 * @param epsilon The amount the value must change by from the last detected value to trigger the event.
+	 */
+	public EventChangeDouble(DoubleReference reference, double epsilon) {
+		this.reference = reference;
+		this.epsilon = epsilon;
+		this.read = false;
+	}
+
+	@Override
+	public boolean eventTriggered() {
+		double newValue = reference.get();
+
+		if (read && (newValue == current || Math.abs(newValue - current) <= epsilon || (Double.isNaN(newValue) && Double.isNaN(current)))) {
+			return false;
+		}
+
+		current = newValue;
+		read = true;
+		return true;
+	}
+
+	@Override
+	public void onEvent() {
+		onEvent(current);
+	}
+
+	@Override
+	public boolean removeAfterEvent() {
+		return false;
+	}
+
+	/**
+	 * A implementation of IEvents onEvent but passes the new value.
+	 *
+	 * @param newValue The new value.
+	 */
+	public abstract void onEvent(double newValue);
+
+	/**
+	 * A reference to a double value.
+	 */
+	@FunctionalInterface
+	public interface DoubleReference {
+		/**
+		 * Gets the value.
+		 *
+		 * @return The value.
+		 */
+		double get();
+	}
+}
@@ -0,0 +1,75 @@
+package flounder.events;
+
+/**
+ * A change listener for a float value, unlike {@link EventChange} the value is never boxed so nothing is allocated when polled.
+ */
+public abstract class EventChangeFloat implements IEvent {
+	private FloatReference reference;
+	private float epsilon;
+	private float current;
+	private boolean read;
+
+	/**
+	 * Creates a new float change event, any change is detected.
+	 *
+	 * @param reference The reference to listen to.
+	 */
+	public EventChangeFloat(FloatReference reference) {
+		this(reference, 0.0f);
+	}
+
+	/**
+	 * Creates a new float change event, that only detects changes larger than a threshold.
+	 *
+	 * @param reference The reference to listen to.
+	 * @param epsilon The amount the value must change by from the last detected value to trigger the event.
+	 */
+	public EventChangeFloat(FloatReference reference, float epsilon) {
+		this.reference = reference;
+		this.epsilon = epsilon;
+		this.read = false;
+	}
+
+	@Override
+	public boolean eventTriggered() {
+		float newValue = reference.get();
+
+		if (read && (newValue == current || Math.abs(newValue - current) <= epsilon || (Float.isNaN(newValue) && Float.isNaN(current)))) {
+			return false;
+		}
+
+		current = newValue;
+		read = true;
+		return true;
+	}
+
+	@Override
+	public void onEvent() {
+		onEvent(current);
+	}
+
+	@Override
+	public boolean removeAfterEvent() {
+		return false;
+	}
+
+	/**
+	 * A implementation of IEvents onEvent but passes the new value.
+	 *
+	 * @param newValue The new value.
+	 */
+	public abstract void onEvent(float newValue);
+
+	/**
+	 * A reference to a float value.
+	 */
+	@FunctionalInterface
+	public interface FloatReference {
+		/**
+		 * Gets the value.
+		 *
+		 * @return The value.
+		 */
+		float get();
+	}
+}
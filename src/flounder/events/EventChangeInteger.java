@@ -0,0 +1,63 @@
+package flounder.events;
+
+/**
+ * A change listener for a int value, unlike {@link EventChange} the value is never boxed so nothing is allocated when polled.
+ */
+public abstract class EventChangeInteger implements IEvent {
+	private IntReference reference;
+	private int current;
+	private boolean read;
+
+	/**
+	 * Creates a new int change event.
+	 *
+	 * @param reference The reference to listen to.
+	 */
+	public EventChangeInteger(IntReference reference) {
+		this.reference = reference;
+		this.read = false;
+	}
+
+	@Override
+	public boolean eventTriggered() {
+		int newValue = reference.get();
+
+		if (read && newValue == current) {
+			return false;
+		}
+
+		current = newValue;
+		read = true;
+		return true;
+	}
+
+	@Override
+	public void onEvent() {
+		onEvent(current);
+	}
+
+	@Override
+	public boolean removeAfterEvent() {
+		return false;
+	}
+
+	/**
+	 * A implementation of IEvents onEvent but passes the new value.
+	 *
+	 * @param newValue The new value.
+	 */
+	public abstract void onEvent(int newValue);
+
+	/**
+	 * A reference to a int value.
+	 */
+	@FunctionalInterface
+	public interface IntReference {
+		/**
+		 * Gets the value.
+		 *
+		 * @return The value.
+		 */
+		int get();
+	}
+}
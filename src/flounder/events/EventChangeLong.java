@@ -0,0 +1,63 @@
+package flounder.events;
+
+/**
+ * A change listener for a long value, unlike {@link EventChange} the value is never boxed so nothing is allocated when polled.
+ */
+public abstract class EventChangeLong implements IEvent {
+	private LongReference reference;
+	private long current;
+	private boolean read;
+
+	/**
+	 * Creates a new long change event.
+	 *
+	 * @param reference The reference to listen to.
+	 */
+	public EventChangeLong(LongReference reference) {
+		this.reference = reference;
+		this.read = false;
+	}
+
+	@Override
+	public boolean eventTriggered() {
+		long newValue = reference.get();
+
+		if (read && newValue == current) {
+			return false;
+		}
+
+		current = newValue;
+		read = true;
+		return true;
+	}
+
+	@Override
+	public void onEvent() {
+		onEvent(current);
+	}
+
+	@Override
+	public boolean removeAfterEvent() {
+		return false;
+	}
+
+	/**
+	 * A implementation of IEvents onEvent but passes the new value.
+	 *
+	 * @param newValue The new value.
+	 */
+	public abstract void onEvent(long newValue);
+
+	/**
+	 * A reference to a long value.
+	 */
+	@FunctionalInterface
+	public interface LongReference {
+		/**
+		 * Gets the value.
+		 *
+		 * @return The value.
+		 */
+		long get();
+	}
+}
@@ -3,11 +3,13 @@ package flounder.events;
 import flounder.maths.*;
 
 /**
- * A class that runs a event after a time has passed.
+ * A class that runs a event after a time has passed. When added to {@link FlounderEvents} the event is run from the modules {@link TimingWheel} instead of being polled.
+ * The wheel owns the timing, so {@link #eventTriggered()} is final, and {@link #removeAfterEvent()} is only read once when the event is added.
  */
 public abstract class EventTime implements IEvent {
 	private Timer timer;
 	private boolean repeat;
+	private TimingWheel.Timeout timeout;
 
 	/**
 	 * Creates a new time event.
@@ -21,7 +23,7 @@ public abstract class EventTime implements IEvent {
 	}
 
 	@Override
-	public boolean eventTriggered() {
+	public final boolean eventTriggered() {
 		if (timer.isPassedTime()) {
 			timer.resetStartTime();
 			return true;
@@ -34,4 +36,31 @@ public abstract class EventTime implements IEvent {
 	public boolean removeAfterEvent() {
 		return !repeat;
 	}
+
+	/**
+	 * Gets the amount of seconds between runs.
+	 *
+	 * @return The interval.
+	 */
+	public double getInterval() {
+		return timer.getInterval();
+	}
+
+	/**
+	 * Gets the timeout that runs this event from the timing wheel.
+	 *
+	 * @return The timeout, or null if the event is not added to {@link FlounderEvents}.
+	 */
+	protected TimingWheel.Timeout getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Sets the timeout that runs this event from the timing wheel, this is set by {@link FlounderEvents} when the event is added and removed.
+	 *
+	 * @param timeout The timeout, or null once the event is removed.
+	 */
+	protected void setTimeout(TimingWheel.Timeout timeout) {
+		this.timeout = timeout;
+	}
 }
@@ -3,68 +3,358 @@ package flounder.events;
 import flounder.framework.*;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
- * A module used for managing events on framework updates.
+ * A module used for managing events on framework updates. Polled {@link IEvent}s are checked every update, timed events and callbacks are run from a {@link TimingWheel}, and typed events can be posted to the modules {@link EventBus}.
  */
 public class FlounderEvents extends Module {
+	private static final float TICK_MS = 1.0f;
+	private static final int PARALLEL_THRESHOLD = 256;
+	private static final int PARALLEL_CHUNK = 64;
+
+	private final Queue<Change> inbox;
 	private List<IEvent> events;
-	private List<IEvent> clones;
+	private Map<IEvent, Integer> counts;
+	private Map<IEvent, Integer> removed;
+	private int[] pureIndices;
+	private byte[] triggered;
+	private EventBus bus;
+	private TimingWheel wheel;
 
 	/**
 	 * Creates a new event manager.
 	 */
 	public FlounderEvents() {
 		super();
+		this.inbox = new ConcurrentLinkedQueue<>();
 	}
 
 	@Handler.Function(Handler.FLAG_INIT)
 	public void init() {
 		this.events = new ArrayList<>();
-		this.clones = new ArrayList<>();
+		this.counts = new IdentityHashMap<>();
+		this.removed = new IdentityHashMap<>();
+		this.pureIndices = new int[0];
+		this.triggered = new byte[0];
+		this.bus = new EventBus();
+		this.wheel = new TimingWheel(getTick());
 	}
 
 	@Handler.Function(Handler.FLAG_UPDATE_PRE)
 	public void update() {
-		clones.clear();
-		clones.addAll(events);
+		// Applies events added and removed from any thread since the last update.
+		Change change;
+
+		while ((change = inbox.poll()) != null) {
+			if (change.add) {
+				register(change.event);
+			} else {
+				unregister(change.event);
+			}
+		}
+
+		if (!removed.isEmpty()) {
+			// Each removal takes out one copy of the event, the first in the list.
+			events.removeIf(event -> decrement(removed, event) && decrement(counts, event));
+			removed.clear();
+		}
+
+		wheel.advance(getTick());
+		bus.dispatch();
+
+		boolean parallel = evaluatePure();
+
+		// Events are only changed here, so the list is compacted in place instead of copied.
+		int kept = 0;
 
-		clones.forEach(event -> {
-			if (event.eventTriggered()) {
+		for (int i = 0; i < events.size(); i++) {
+			IEvent event = events.get(i);
+			boolean remove = false;
+			boolean fired;
+
+			if (parallel && triggered[i] != 0) {
+				fired = triggered[i] == 2;
+				triggered[i] = 0;
+			} else {
+				fired = event.eventTriggered();
+			}
+
+			if (fired) {
 				event.onEvent();
+				remove = event.removeAfterEvent();
+			}
 
-				if (event.removeAfterEvent()) {
-					events.remove(event);
-				}
+			if (remove) {
+				decrement(counts, event);
+			} else {
+				events.set(kept++, event);
 			}
-		});
+		}
+
+		events.subList(kept, events.size()).clear();
 	}
 
 	/**
-	 * Adds an event to the listening que.
+	 * Checks every {@link IEventPure} event on the fork join pool, if there are enough of them to be worth splitting up.
+	 *
+	 * @return If the pure events were checked, their results are stored in {@link #triggered}.
+	 */
+	private boolean evaluatePure() {
+		int count = events.size();
+
+		if (count < PARALLEL_THRESHOLD) {
+			return false;
+		}
+
+		if (pureIndices.length < count) {
+			pureIndices = new int[count];
+			triggered = new byte[count];
+		}
+
+		int pure = 0;
+
+		for (int i = 0; i < count; i++) {
+			if (events.get(i) instanceof IEventPure) {
+				pureIndices[pure++] = i;
+			}
+		}
+
+		if (pure < PARALLEL_THRESHOLD) {
+			return false;
+		}
+
+		ForkJoinPool.commonPool().invoke(new Evaluation(events, pureIndices, triggered, 0, pure));
+		return true;
+	}
+
+	/**
+	 * Adds an event to the listening que, this can be called from any thread and is applied at the start of the next update.
 	 *
 	 * @param event The event to add.
 	 */
 	public void addEvent(IEvent event) {
-		this.events.add(event);
+		inbox.offer(new Change(event, true));
 	}
 
 	/**
-	 * Removes a event to the listening que.
+	 * Removes a event to the listening que, this can be called from any thread and is applied at the start of the next update.
 	 *
 	 * @param event The event to remove.
 	 */
 	public void removeEvent(IEvent event) {
-		this.events.remove(event);
+		inbox.offer(new Change(event, false));
+	}
+
+	private void register(IEvent event) {
+		if (event instanceof EventTime) {
+			EventTime time = (EventTime) event;
+
+			if (time.getTimeout() == null || time.getTimeout().isCancelled()) {
+				long interval = toTicks(time.getInterval());
+				time.setTimeout(wheel.schedule(getTick() + interval, event.removeAfterEvent() ? 0 : interval, event::onEvent));
+			}
+
+			return;
+		}
+
+		// A removal still waiting to be applied is cancelled instead, the event is still in the list.
+		if (decrement(removed, event)) {
+			return;
+		}
+
+		events.add(event);
+		counts.merge(event, 1, Integer::sum);
+	}
+
+	private void unregister(IEvent event) {
+		if (event instanceof EventTime) {
+			EventTime time = (EventTime) event;
+
+			if (time.getTimeout() != null) {
+				time.getTimeout().cancel();
+				time.setTimeout(null);
+			}
+
+			return;
+		}
+
+		// Only copies that are in the list can be removed, removing a event that was never added does nothing.
+		if (removed.getOrDefault(event, 0) < counts.getOrDefault(event, 0)) {
+			removed.merge(event, 1, Integer::sum);
+		}
+	}
+
+	/**
+	 * Takes one from the count of a event, removing it from the map at zero.
+	 *
+	 * @param map The counts.
+	 * @param event The event.
+	 *
+	 * @return If the event had a count.
+	 */
+	private static boolean decrement(Map<IEvent, Integer> map, IEvent event) {
+		Integer count = map.get(event);
+
+		if (count == null) {
+			return false;
+		}
+
+		if (count == 1) {
+			map.remove(event);
+		} else {
+			map.put(event, count - 1);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Schedules a callback to be run once after a delay, this must be called from the main thread.
+	 *
+	 * @param delay The amount of seconds to wait.
+	 * @param callback The callback to run.
+	 *
+	 * @return The timeout, this can be used to cancel the callback.
+	 */
+	public TimingWheel.Timeout schedule(float delay, Runnable callback) {
+		return wheel.schedule(getTick() + toTicks(delay), 0, callback);
+	}
+
+	/**
+	 * Schedules a callback to be run repeatedly, this must be called from the main thread.
+	 *
+	 * @param interval The amount of seconds between runs.
+	 * @param callback The callback to run.
+	 *
+	 * @return The timeout, this can be used to cancel the callback.
+	 */
+	public TimingWheel.Timeout scheduleRepeating(float interval, Runnable callback) {
+		long ticks = toTicks(interval);
+		return wheel.schedule(getTick() + ticks, ticks, callback);
+	}
+
+	/**
+	 * Gets the current framework time in timing wheel ticks.
+	 *
+	 * @return The current tick.
+	 */
+	private long getTick() {
+		return (long) (Framework.get().getTimeMs() / TICK_MS);
+	}
+
+	/**
+	 * Converts a amount of seconds into timing wheel ticks, at least one tick.
+	 *
+	 * @param seconds The seconds to convert.
+	 *
+	 * @return The amount of ticks.
+	 */
+	private static long toTicks(double seconds) {
+		return Math.max(1, (long) Math.ceil(seconds * 1000.0 / TICK_MS));
+	}
+
+	/**
+	 * Subscribes a listener to a type of event posted with {@link #post(Object)}.
+	 *
+	 * @param type The class of events to listen for.
+	 * @param listener The listener to add.
+	 * @param <T> The type of event.
+	 */
+	public <T> void subscribe(Class<T> type, IEventListener<? super T> listener) {
+		bus.subscribe(type, listener);
+	}
+
+	/**
+	 * Unsubscribes a listener from a type of event.
+	 *
+	 * @param type The class of events the listener was subscribed to.
+	 * @param listener The listener to remove.
+	 * @param <T> The type of event.
+	 */
+	public <T> void unsubscribe(Class<T> type, IEventListener<? super T> listener) {
+		bus.unsubscribe(type, listener);
+	}
+
+	/**
+	 * Posts a typed event, this can be called from any thread and its listeners are run on the next update.
+	 *
+	 * @param event The event to post.
+	 */
+	public void post(Object event) {
+		bus.post(event);
+	}
+
+	/**
+	 * Gets the typed event bus used by this module.
+	 *
+	 * @return The event bus.
+	 */
+	public EventBus getBus() {
+		return bus;
 	}
 
 	@Handler.Function(Handler.FLAG_DISPOSE)
 	public void dispose() {
+		inbox.clear();
 		events.clear();
+		counts.clear();
+		removed.clear();
+		bus.clear();
+		wheel.clear();
 	}
 
 	@Module.Instance
 	public static FlounderEvents get() {
 		return (FlounderEvents) Framework.get().getInstance(FlounderEvents.class);
 	}
+
+	/**
+	 * A event that has been added or removed, waiting to be applied on the main thread.
+	 */
+	private static class Change {
+		private IEvent event;
+		private boolean add;
+
+		private Change(IEvent event, boolean add) {
+			this.event = event;
+			this.add = add;
+		}
+	}
+
+	/**
+	 * Checks a range of pure events, splitting into chunks that are checked across the fork join pool.
+	 */
+	private static class Evaluation extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final List<IEvent> events;
+		private final int[] pureIndices;
+		private final byte[] triggered;
+		private final int from;
+		private final int to;
+
+		private Evaluation(List<IEvent> events, int[] pureIndices, byte[] triggered, int from, int to) {
+			this.events = events;
+			this.pureIndices = pureIndices;
+			this.triggered = triggered;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= PARALLEL_CHUNK) {
+				for (int i = from; i < to; i++) {
+					int index = pureIndices[i];
+					triggered[index] = events.get(index).eventTriggered() ? (byte) 2 : (byte) 1;
+				}
+
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+			invokeAll(new Evaluation(events, pureIndices, triggered, from, middle), new Evaluation(events, pureIndices, triggered, middle, to));
+		}
+	}
 }
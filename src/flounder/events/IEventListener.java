@@ -0,0 +1,16 @@
+package flounder.events;
+
+/**
+ * A listener for events of a type that are posted to a {@link EventBus}.
+ *
+ * @param <T> The type of event listened for.
+ */
+@FunctionalInterface
+public interface IEventListener<T> {
+	/**
+	 * Run when a event of the listened type has been posted.
+	 *
+	 * @param event The posted event.
+	 */
+	void onEvent(T event);
+}
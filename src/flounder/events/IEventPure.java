@@ -0,0 +1,8 @@
+package flounder.events;
+
+/**
+ * A marker for events whose {@link #eventTriggered()} only reads state and has no side effects.
+ * When there are many of these {@link FlounderEvents} checks them in parallel, while {@link #onEvent()} is still run on the main thread in the order events were added.
+ */
+public interface IEventPure extends IEvent {
+}
@@ -0,0 +1,351 @@
+package flounder.events;
+
+import java.util.*;
+
+/**
+ * A hierarchical timing wheel used to run one-shot and repeating timed callbacks. Each level has 64 slots, level 0 holds timeouts due within the next 64 ticks and every higher level covers 64 times the range of the level below it.
+ * Timeouts are moved down a level when their slot is reached, and empty slots are skipped using a occupancy mask per level. Advancing the wheel therefore only costs work for the timeouts that expire or move, not for every scheduled timeout.
+ * This class is not thread safe, all calls should be made from the same thread.
+ */
+public class TimingWheel {
+	private static final int BITS = 6;
+	private static final int SLOTS = 1 << BITS;
+	private static final long MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+	private static final int EXPIRING = -2;
+
+	private Timeout[][] slots;
+	private long[] occupied;
+	private List<Timeout> overflow;
+	private Timeout expiring;
+	private long currentTick;
+	private int size;
+
+	/**
+	 * Creates a new timing wheel.
+	 *
+	 * @param startTick The tick the wheel starts at.
+	 */
+	public TimingWheel(long startTick) {
+		this.slots = new Timeout[LEVELS][SLOTS];
+		this.occupied = new long[LEVELS];
+		this.overflow = new ArrayList<>();
+		this.currentTick = startTick;
+		this.size = 0;
+	}
+
+	/**
+	 * Schedules a callback to run on a tick.
+	 *
+	 * @param deadline The tick the callback is run on, if this has already passed it is run on the next advance.
+	 * @param interval The ticks between repeats, or 0 if the callback only runs once.
+	 * @param callback The callback to run.
+	 *
+	 * @return The timeout, this can be used to cancel the callback.
+	 */
+	public Timeout schedule(long deadline, long interval, Runnable callback) {
+		Timeout timeout = new Timeout(this, deadline, Math.max(interval, 0), callback);
+		insert(timeout);
+		size++;
+		return timeout;
+	}
+
+	/**
+	 * Advances the wheel up to a tick, running every callback that is due on the way in order.
+	 *
+	 * @param target The tick to advance to.
+	 */
+	public void advance(long target) {
+		while (currentTick < target) {
+			long next = currentTick + 1;
+
+			if ((next & MASK) == 0) {
+				cascade(next);
+			}
+
+			long limit = Math.min(target, next | MASK);
+			long block = next & ~MASK;
+			int last = (int) (limit & MASK);
+			int slot = (int) (next & MASK);
+
+			while (slot <= last) {
+				long bits = occupied[0] & rangeMask(slot, last);
+
+				if (bits == 0) {
+					break;
+				}
+
+				slot = Long.numberOfTrailingZeros(bits);
+				currentTick = block | slot;
+				expire(slot);
+				slot++;
+			}
+
+			currentTick = limit;
+		}
+	}
+
+	/**
+	 * Runs all timeouts in a level 0 slot, this is called with {@link #currentTick} set to the slots tick.
+	 *
+	 * @param slot The slot to run.
+	 */
+	private void expire(int slot) {
+		// The slot is detached before any callback runs, so repeats and new timeouts that land in this slot are for its next turn, not this one.
+		expiring = slots[0][slot];
+		slots[0][slot] = null;
+		occupied[0] &= ~(1L << slot);
+
+		for (Timeout timeout = expiring; timeout != null; timeout = timeout.next) {
+			timeout.level = EXPIRING;
+		}
+
+		Timeout timeout;
+
+		// Timeouts are taken off the head one at a time, so callbacks can safely cancel others in the same slot.
+		while ((timeout = expiring) != null) {
+			expiring = timeout.next;
+
+			if (expiring != null) {
+				expiring.previous = null;
+			}
+
+			timeout.next = null;
+			timeout.level = -1;
+
+			if (timeout.interval > 0) {
+				// Repeats are placed before the callback runs, so the callback can cancel it.
+				timeout.deadline = currentTick + timeout.interval;
+				insert(timeout);
+			} else {
+				timeout.cancelled = true;
+				size--;
+			}
+
+			timeout.callback.run();
+		}
+	}
+
+	/**
+	 * Moves timeouts down from the higher levels whose slot has been reached.
+	 *
+	 * @param tick The first tick of a new level 0 range.
+	 */
+	private void cascade(long tick) {
+		currentTick = tick - 1;
+
+		int highest = 1;
+
+		while (highest < LEVELS - 1 && ((tick >> (BITS * highest)) & MASK) == 0) {
+			highest++;
+		}
+
+		if (highest == LEVELS - 1 && ((tick >> (BITS * highest)) & MASK) == 0 && !overflow.isEmpty()) {
+			List<Timeout> moved = new ArrayList<>(overflow);
+			overflow.clear();
+			moved.forEach(this::insert);
+		}
+
+		for (int level = highest; level > 0; level--) {
+			int slot = (int) ((tick >> (BITS * level)) & MASK);
+			Timeout timeout = slots[level][slot];
+			slots[level][slot] = null;
+			occupied[level] &= ~(1L << slot);
+
+			while (timeout != null) {
+				Timeout next = timeout.next;
+				timeout.next = null;
+				timeout.previous = null;
+				insert(timeout);
+				timeout = next;
+			}
+		}
+	}
+
+	/**
+	 * Places a timeout into the level and slot that covers its deadline.
+	 *
+	 * @param timeout The timeout to place.
+	 */
+	private void insert(Timeout timeout) {
+		long base = currentTick + 1;
+		long deadline = Math.max(timeout.deadline, base);
+
+		for (int level = 0; level < LEVELS; level++) {
+			int shift = BITS * (level + 1);
+
+			if ((deadline >> shift) == (base >> shift)) {
+				int slot = (int) ((deadline >> (BITS * level)) & MASK);
+				timeout.level = level;
+				timeout.slot = slot;
+				timeout.previous = null;
+				timeout.next = slots[level][slot];
+
+				if (timeout.next != null) {
+					timeout.next.previous = timeout;
+				}
+
+				slots[level][slot] = timeout;
+				occupied[level] |= 1L << slot;
+				return;
+			}
+		}
+
+		timeout.level = LEVELS;
+		overflow.add(timeout);
+	}
+
+	/**
+	 * Removes a scheduled timeout from its slot.
+	 *
+	 * @param timeout The timeout to remove.
+	 */
+	private void remove(Timeout timeout) {
+		if (timeout.level == LEVELS) {
+			overflow.remove(timeout);
+		} else if (timeout.level == EXPIRING) {
+			if (timeout.previous != null) {
+				timeout.previous.next = timeout.next;
+			} else {
+				expiring = timeout.next;
+			}
+
+			if (timeout.next != null) {
+				timeout.next.previous = timeout.previous;
+			}
+		} else if (timeout.level >= 0) {
+			if (timeout.previous != null) {
+				timeout.previous.next = timeout.next;
+			} else {
+				slots[timeout.level][timeout.slot] = timeout.next;
+
+				if (timeout.next == null) {
+					occupied[timeout.level] &= ~(1L << timeout.slot);
+				}
+			}
+
+			if (timeout.next != null) {
+				timeout.next.previous = timeout.previous;
+			}
+		}
+
+		timeout.next = null;
+		timeout.previous = null;
+		timeout.level = -1;
+		size--;
+	}
+
+	private static long rangeMask(int from, int to) {
+		long upper = to == SLOTS - 1 ? -1L : (1L << (to + 1)) - 1;
+		return upper & (-1L << from);
+	}
+
+	/**
+	 * Gets the tick the wheel has been advanced to.
+	 *
+	 * @return The current tick.
+	 */
+	public long getCurrentTick() {
+		return currentTick;
+	}
+
+	/**
+	 * Gets how many timeouts are scheduled.
+	 *
+	 * @return The number of scheduled timeouts.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Removes every scheduled timeout.
+	 */
+	public void clear() {
+		for (int level = 0; level < LEVELS; level++) {
+			for (int slot = 0; slot < SLOTS; slot++) {
+				Timeout timeout = slots[level][slot];
+
+				while (timeout != null) {
+					timeout.cancelled = true;
+					timeout = timeout.next;
+				}
+
+				slots[level][slot] = null;
+			}
+
+			occupied[level] = 0;
+		}
+
+		for (Timeout timeout = expiring; timeout != null; timeout = timeout.next) {
+			timeout.cancelled = true;
+		}
+
+		expiring = null;
+		overflow.forEach(timeout -> timeout.cancelled = true);
+		overflow.clear();
+		size = 0;
+	}
+
+	/**
+	 * A callback scheduled in a timing wheel.
+	 */
+	public static class Timeout {
+		private TimingWheel wheel;
+		private long deadline;
+		private long interval;
+		private Runnable callback;
+		private boolean cancelled;
+
+		private int level;
+		private int slot;
+		private Timeout previous;
+		private Timeout next;
+
+		private Timeout(TimingWheel wheel, long deadline, long interval, Runnable callback) {
+			this.wheel = wheel;
+			this.deadline = deadline;
+			this.interval = interval;
+			this.callback = callback;
+			this.cancelled = false;
+			this.level = -1;
+		}
+
+		/**
+		 * Cancels the callback, if it is still scheduled.
+		 */
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				wheel.remove(this);
+			}
+		}
+
+		/**
+		 * Gets if the callback has been cancelled, or has run and will not repeat.
+		 *
+		 * @return If the timeout is no longer scheduled.
+		 */
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		/**
+		 * Gets if the callback repeats.
+		 *
+		 * @return If the callback repeats.
+		 */
+		public boolean isRepeating() {
+			return interval > 0;
+		}
+
+		/**
+		 * Gets the tick the callback is next run on.
+		 *
+		 * @return The deadline tick.
+		 */
+		public long getDeadline() {
+			return deadline;
+		}
+	}
+}
@@ -7,7 +7,11 @@ import java.util.*;
  * A class that represents a factory and its basic functionality.
  */
 public abstract class Factory {
+	private static final List<WeakReference<Factory>> FACTORIES = new ArrayList<>();
+
 	private String factoryName;
+	private long budgetMinimum;
+	private float budgetWeight;
 
 	/**
 	 * Creates a new factory object.
@@ -16,6 +20,12 @@ public abstract class Factory {
 	 */
 	public Factory(String factoryName) {
 		this.factoryName = factoryName;
+		this.budgetMinimum = 0;
+		this.budgetWeight = 1.0f;
+
+		synchronized (FACTORIES) {
+			FACTORIES.add(new WeakReference<>(this));
+		}
 	}
 
 	/**
@@ -42,13 +52,114 @@ public abstract class Factory {
 	 */
 	protected abstract void create(FactoryObject object, FactoryBuilder builder);
 
+	/**
+	 * Gets how many detail levels objects from this factory are loaded with. Level 0 is loaded though {@link #loadData} and {@link #create}, higher levels are streamed in afterwards.
+	 *
+	 * @param builder The builder to use parameters from.
+	 *
+	 * @return The number of detail levels, 1 if the factory does not support progressive loading.
+	 */
+	protected int getLevelCount(FactoryBuilder builder) {
+		return 1;
+	}
+
+	/**
+	 * Used to load resource data for a higher detail level into a factory object, runs on the resource thread.
+	 *
+	 * @param object The object to load data into.
+	 * @param builder The builder to use parameters from.
+	 * @param name The name of the object being loaded.
+	 * @param level The detail level being loaded, always above 0.
+	 */
+	protected void loadLevelData(FactoryObject object, FactoryBuilder builder, String name, int level) {
+	}
+
+	/**
+	 * Used to take the resource data for a higher detail level and turn it into the object, runs on the OpenGL thread.
+	 *
+	 * @param object The object to create for.
+	 * @param builder The builder to use parameters from.
+	 * @param level The detail level being created, always above 0.
+	 */
+	protected void createLevel(FactoryObject object, FactoryBuilder builder, int level) {
+	}
+
+	/**
+	 * Used to free the resources of a higher detail level that has been dropped, runs on the OpenGL thread.
+	 *
+	 * @param object The object to free the level from.
+	 * @param level The detail level being dropped, always above 0.
+	 */
+	protected void disposeLevel(FactoryObject object, int level) {
+	}
+
+	/**
+	 * Used to free the resources of a object once its last {@link FactoryHandle} has been released, runs on the OpenGL thread.
+	 *
+	 * @param object The object to dispose.
+	 */
+	protected void dispose(FactoryObject object) {
+	}
+
+	/**
+	 * Gets if a loaded object with no handles can be disposed by {@link FlounderFactories} when over the memory budget.
+	 * Only return true if nothing keeps using the object after it has been created, as it will be disposed and loaded again on the next create.
+	 *
+	 * @param object The object to check.
+	 *
+	 * @return If the object can be evicted.
+	 */
+	protected boolean isEvictable(FactoryObject object) {
+		return false;
+	}
+
 	/**
 	 * Gets a static list of all loaded factory objects. This is used to hold a list of already loaded objects to reduce load requests.
+	 * The map is used as the lock for reading and changing it, as objects are loaded and removed from more than one thread.
 	 *
 	 * @return The map of loaded factory objects, mapped by name.
 	 */
 	protected abstract Map<String, SoftReference<FactoryObject>> getLoaded();
 
+	/**
+	 * Removes a object from the loaded map, if it is still the object loaded under its name.
+	 *
+	 * @param object The object to remove.
+	 */
+	protected void removeLoaded(FactoryObject object) {
+		Map<String, SoftReference<FactoryObject>> loaded = getLoaded();
+
+		synchronized (loaded) {
+			SoftReference<FactoryObject> ref = loaded.get(object.getName());
+
+			if (ref != null && ref.get() == object) {
+				loaded.remove(object.getName());
+			}
+		}
+	}
+
+	/**
+	 * Gets a copy of the objects in the loaded map. The loaded map is locked while it is read or changed, so this can be called while other threads load objects.
+	 *
+	 * @return The loaded objects that have not been collected.
+	 */
+	protected List<FactoryObject> getLoadedSnapshot() {
+		Map<String, SoftReference<FactoryObject>> loaded = getLoaded();
+		List<FactoryObject> result = new ArrayList<>();
+
+		synchronized (loaded) {
+			for (SoftReference<FactoryObject> ref : loaded.values()) {
+				FactoryObject object = ref == null ? null : ref.get();
+
+				if (object != null) {
+					result.add(object);
+				}
+			}
+		}
+
+		return result;
+	}
+
 	/**
 	 * The name of the factory.
 	 *
@@ -57,4 +168,65 @@ public abstract class Factory {
 	protected String getFactoryName() {
 		return factoryName;
 	}
+
+	/**
+	 * Gets the amount of memory this factory is always allowed to use, {@link FlounderFactories} will not evict below this.
+	 *
+	 * @return The minimum budget in bytes.
+	 */
+	public long getBudgetMinimum() {
+		return budgetMinimum;
+	}
+
+	/**
+	 * Sets the amount of memory this factory is always allowed to use.
+	 *
+	 * @param budgetMinimum The minimum budget in bytes.
+	 */
+	public void setBudgetMinimum(long budgetMinimum) {
+		this.budgetMinimum = budgetMinimum;
+	}
+
+	/**
+	 * Gets the weight of this factory when sharing the memory budget, factories with a larger weight get a larger share.
+	 *
+	 * @return The budget weight.
+	 */
+	public float getBudgetWeight() {
+		return budgetWeight;
+	}
+
+	/**
+	 * Sets the weight of this factory when sharing the memory budget.
+	 *
+	 * @param budgetWeight The budget weight, must be above 0.
+	 */
+	public void setBudgetWeight(float budgetWeight) {
+		this.budgetWeight = Math.max(budgetWeight, 0.001f);
+	}
+
+	/**
+	 * Gets a list of all factories that have been created and not yet collected. Factories are only weakly held, so a factory that is no longer used can be collected.
+	 *
+	 * @return The created factories.
+	 */
+	protected static List<Factory> getFactories() {
+		List<Factory> result = new ArrayList<>();
+
+		synchronized (FACTORIES) {
+			Iterator<WeakReference<Factory>> iterator = FACTORIES.iterator();
+
+			while (iterator.hasNext()) {
+				Factory factory = iterator.next().get();
+
+				if (factory == null) {
+					iterator.remove();
+				} else {
+					result.add(factory);
+				}
+			}
+		}
+
+		return result;
+	}
 }
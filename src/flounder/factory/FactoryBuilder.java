@@ -4,6 +4,7 @@ import flounder.logger.*;
 import flounder.processing.*;
 
 import java.lang.ref.*;
+import java.util.*;
 
 /**
  * A builder used to set parameters for loading.
@@ -27,6 +28,36 @@ public abstract class FactoryBuilder {
 	 */
 	public abstract FactoryObject create();
 
+	/**
+	 * Creates a new factory object like {@link #create()}, and returns a counted handle to it. When the last handle to a object is released it is disposed right away instead of waiting on the garbage collector.
+	 *
+	 * @param <T> The type of factory object.
+	 *
+	 * @return A new handle to the factory object.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends FactoryObject> FactoryHandle<T> acquire() {
+		while (true) {
+			FactoryObject object = create();
+
+			if (object == null) {
+				return null;
+			}
+
+			if (object.acquireReference()) {
+				return new FactoryHandle<>((T) object);
+			}
+
+			// The object is being disposed, so it is removed and loaded again.
+			if (object.getFactory() == null) {
+				FlounderLogger.get().error("Factory object " + object.getName() + " is disposed and can not be loaded again!");
+				return null;
+			}
+
+			object.getFactory().removeLoaded(object);
+		}
+	}
+
 	/**
 	 * Only call from {@link #create()}! Creates the model object.
 	 *
@@ -35,7 +66,15 @@ public abstract class FactoryBuilder {
 	 * @return The factory object that has been created.
 	 */
 	public FactoryObject builderCreate(String name) {
-		SoftReference<FactoryObject> ref = factory.getLoaded().get(name);
+		Map<String, SoftReference<FactoryObject>> loaded = factory.getLoaded();
+
+		synchronized (loaded) {
+			return builderCreate(loaded, name);
+		}
+	}
+
+	private FactoryObject builderCreate(Map<String, SoftReference<FactoryObject>> loaded, String name) {
+		SoftReference<FactoryObject> ref = loaded.get(name);
 		FactoryObject object = ref == null ? null : ref.get();
 
 		if (object == null) {
@@ -43,10 +82,17 @@ public abstract class FactoryBuilder {
 				FlounderLogger.get().log(name + " is being loaded into the " + factory.getFactoryName() + " factory right now!");
 			}
 
-			factory.getLoaded().remove(name);
+			loaded.remove(name);
 			object = factory.newObject();
+			object.setSource(factory, this, name, factory.getLevelCount(this));
 			FlounderProcessors.get().sendRequest(new FactoryRequestLoad(name, factory, object, this));
-			factory.getLoaded().put(name, new SoftReference<>(object));
+
+			// Higher detail levels are queued after the base level, so they stream in once it is usable.
+			for (int level = 1; level < object.getLevelCount(); level++) {
+				object.requestLevel(level);
+			}
+
+			loaded.put(name, new SoftReference<>(object));
 		}
 
 		return object;
@@ -0,0 +1,68 @@
+package flounder.factory;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * A counted handle to a factory object, created from {@link FactoryBuilder#acquire()}. Once every handle to a object has been released the object is disposed.
+ *
+ * @param <T> The type of factory object.
+ */
+public class FactoryHandle<T extends FactoryObject> {
+	private T object;
+	private AtomicBoolean released;
+
+	/**
+	 * Creates a new handle, the reference must already be added to the object.
+	 *
+	 * @param object The object to hold.
+	 */
+	protected FactoryHandle(T object) {
+		this.object = object;
+		this.released = new AtomicBoolean(false);
+	}
+
+	/**
+	 * Gets the object held by this handle.
+	 *
+	 * @return The object, or null if this handle has been released.
+	 */
+	public T get() {
+		if (released.get()) {
+			return null;
+		}
+
+		object.markUsed();
+		return object;
+	}
+
+	/**
+	 * Creates another handle to the same object, this must be released separately.
+	 *
+	 * @return The new handle, or null if this handle has been released.
+	 */
+	public FactoryHandle<T> copy() {
+		if (released.get() || !object.acquireReference()) {
+			return null;
+		}
+
+		return new FactoryHandle<>(object);
+	}
+
+	/**
+	 * Gets if this handle has been released.
+	 *
+	 * @return If the handle is released.
+	 */
+	public boolean isReleased() {
+		return released.get();
+	}
+
+	/**
+	 * Releases this handle, calling this more than once does nothing.
+	 */
+	public void release() {
+		if (released.compareAndSet(false, true)) {
+			object.releaseReference();
+		}
+	}
+}
@@ -1,5 +1,10 @@
 package flounder.factory;
 
+import flounder.processing.*;
+import flounder.processing.opengl.*;
+
+import java.util.concurrent.atomic.*;
+
 /**
  * The object the factory will be loading into.
  */
@@ -7,12 +12,78 @@ public abstract class FactoryObject {
 	private boolean dataLoaded;
 	private boolean fullyLoaded;
 
+	private Factory factory;
+	private FactoryBuilder builder;
+	private String name;
+
+	private boolean[] levelsLoaded;
+	private int[] levelsPending;
+	private FactoryRequestLevel[] levelsWaiting;
+	private int levelGeneration;
+	private volatile int bestLevel;
+
+	private AtomicInteger references;
+	private long lastUsed;
+
 	/**
 	 * Creates a new empty factory object.
 	 */
 	public FactoryObject() {
 		dataLoaded = false;
 		fullyLoaded = false;
+
+		levelsLoaded = new boolean[1];
+		levelsPending = new int[1];
+		levelsWaiting = new FactoryRequestLevel[1];
+		levelGeneration = 0;
+		bestLevel = -1;
+
+		references = new AtomicInteger(0);
+		lastUsed = FlounderFactories.getFrame();
+	}
+
+	/**
+	 * Sets where this object was created from, used when streaming levels in and out after the first load.
+	 *
+	 * @param factory The factory that created this object.
+	 * @param builder The builder used to create this object.
+	 * @param name The name the object is loaded under.
+	 * @param levelCount The number of detail levels the object has.
+	 */
+	protected void setSource(Factory factory, FactoryBuilder builder, String name, int levelCount) {
+		this.factory = factory;
+		this.builder = builder;
+		this.name = name;
+		this.levelsLoaded = new boolean[Math.max(1, levelCount)];
+		this.levelsPending = new int[levelsLoaded.length];
+		this.levelsWaiting = new FactoryRequestLevel[levelsLoaded.length];
+	}
+
+	/**
+	 * Gets the factory that created this object.
+	 *
+	 * @return The factory, null if the object was not created by a builder.
+	 */
+	protected Factory getFactory() {
+		return factory;
+	}
+
+	/**
+	 * Gets the builder used to create this object.
+	 *
+	 * @return The builder, null if the object was not created by a builder.
+	 */
+	protected FactoryBuilder getBuilder() {
+		return builder;
+	}
+
+	/**
+	 * Gets the name this object is loaded under.
+	 *
+	 * @return The name of the object.
+	 */
+	public String getName() {
+		return name;
 	}
 
 	/**
@@ -43,11 +114,267 @@ public abstract class FactoryObject {
 	}
 
 	/**
-	 * Sets that the factory has been loaded.
+	 * Sets that the factory has been loaded. This also marks the lowest detail level (0) as loaded, and creates any higher levels that finished loading before it.
 	 *
 	 * @param fullyLoaded If the factory has been loaded.
 	 */
-	protected void setFullyLoaded(boolean fullyLoaded) {
+	protected synchronized void setFullyLoaded(boolean fullyLoaded) {
 		this.fullyLoaded = fullyLoaded;
+		setLevelLoaded(0, fullyLoaded);
+
+		if (!fullyLoaded) {
+			return;
+		}
+
+		for (int level = 1; level < levelsWaiting.length; level++) {
+			FactoryRequestLevel request = levelsWaiting[level];
+
+			if (request != null) {
+				levelsWaiting[level] = null;
+				FlounderProcessors.get().sendRequest((RequestOpenGL) request::createLevel);
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of detail levels this object has, level 0 being the cheapest.
+	 *
+	 * @return The number of detail levels.
+	 */
+	public int getLevelCount() {
+		return levelsLoaded.length;
+	}
+
+	/**
+	 * Gets if a detail level is loaded and ready to be used.
+	 *
+	 * @param level The detail level.
+	 *
+	 * @return If the level is loaded.
+	 */
+	public boolean isLevelLoaded(int level) {
+		boolean[] levels = levelsLoaded;
+		return level >= 0 && level < levels.length && levels[level];
+	}
+
+	/**
+	 * Gets the highest detail level that is ready to be used, this never blocks and can be called every frame.
+	 *
+	 * @return The best loaded level, or -1 if nothing is loaded yet.
+	 */
+	public int getBestLevel() {
+		markUsed();
+		return bestLevel;
+	}
+
+	/**
+	 * Sets if a detail level is loaded, and updates the best available level.
+	 *
+	 * @param level The detail level.
+	 * @param loaded If the level is loaded.
+	 */
+	protected synchronized void setLevelLoaded(int level, boolean loaded) {
+		if (level < 0 || level >= levelsLoaded.length) {
+			return;
+		}
+
+		levelsLoaded[level] = loaded;
+
+		int best = -1;
+
+		// Higher levels are only usable on top of the base level.
+		if (levelsLoaded[0]) {
+			for (int i = levelsLoaded.length - 1; i >= 0; i--) {
+				if (levelsLoaded[i]) {
+					best = i;
+					break;
+				}
+			}
+		}
+
+		this.bestLevel = best;
+	}
+
+	/**
+	 * Requests a detail level to be streamed into this object, does nothing if the level is already loaded or being loaded.
+	 *
+	 * @param level The detail level to load.
+	 */
+	public synchronized void requestLevel(int level) {
+		if (builder == null || level <= 0 || level >= getLevelCount() || isLevelLoaded(level) || levelsPending[level] != 0) {
+			return;
+		}
+
+		levelsPending[level] = ++levelGeneration;
+		FlounderProcessors.get().sendRequest(new FactoryRequestLevel(name, factory, this, builder, level, levelsPending[level]));
+	}
+
+	/**
+	 * Gets if a detail level is being loaded.
+	 *
+	 * @param level The detail level.
+	 *
+	 * @return If the level has been requested and has not finished or been dropped.
+	 */
+	public synchronized boolean isLevelPending(int level) {
+		return level > 0 && level < levelsPending.length && levelsPending[level] != 0;
+	}
+
+	/**
+	 * Gets if a level request is still wanted, it is not if the level was dropped after the request was made.
+	 *
+	 * @param level The detail level.
+	 * @param generation The generation of the request.
+	 *
+	 * @return If the request is current.
+	 */
+	protected synchronized boolean isLevelRequestCurrent(int level, int generation) {
+		return levelsPending[level] == generation;
+	}
+
+	/**
+	 * Keeps a level request that finished loading before the base level, it is created once the base level is loaded.
+	 *
+	 * @param request The finished request.
+	 * @param level The detail level.
+	 */
+	protected synchronized void waitForBaseLevel(FactoryRequestLevel request, int level) {
+		levelsWaiting[level] = request;
+	}
+
+	/**
+	 * Marks a requested level as created and usable.
+	 *
+	 * @param level The detail level.
+	 */
+	protected synchronized void finishLevel(int level) {
+		levelsPending[level] = 0;
+		setLevelLoaded(level, true);
+	}
+
+	/**
+	 * Drops a detail level from this object, freeing its resources. The base level (0) can not be dropped.
+	 * A level that is still being loaded is cancelled, and its result is thrown away when it arrives.
+	 *
+	 * @param level The detail level to drop.
+	 */
+	public synchronized void dropLevel(int level) {
+		if (factory == null || level <= 0 || level >= getLevelCount()) {
+			return;
+		}
+
+		if (levelsPending[level] != 0) {
+			levelsPending[level] = 0;
+			levelsWaiting[level] = null;
+			return;
+		}
+
+		if (!isLevelLoaded(level)) {
+			return;
+		}
+
+		// The level is marked unloaded now so it will not be picked, the resources are freed on the OpenGL thread.
+		setLevelLoaded(level, false);
+		FlounderProcessors.get().sendRequest((RequestOpenGL) () -> factory.disposeLevel(this, level));
+	}
+
+	/**
+	 * Drops all detail levels above a level.
+	 *
+	 * @param level The highest level to keep.
+	 */
+	public void dropLevelsAbove(int level) {
+		for (int i = getLevelCount() - 1; i > Math.max(0, level); i--) {
+			dropLevel(i);
+		}
+	}
+
+	/**
+	 * Gets a estimate of how much memory this object currently uses, including any loaded detail levels.
+	 *
+	 * @return The estimated size in bytes.
+	 */
+	public long getEstimatedBytes() {
+		return 0;
+	}
+
+	/**
+	 * Gets a estimate of how much memory a detail level above 0 uses, this is what will be freed when the level is dropped.
+	 *
+	 * @param level The detail level.
+	 *
+	 * @return The estimated size in bytes.
+	 */
+	public long getEstimatedLevelBytes(int level) {
+		return 0;
+	}
+
+	/**
+	 * Marks this object as used in the current frame, used by {@link FlounderFactories} to evict the least recently used objects first.
+	 */
+	public void markUsed() {
+		this.lastUsed = FlounderFactories.getFrame();
+	}
+
+	/**
+	 * Gets the last frame this object was used in.
+	 *
+	 * @return The last frame used.
+	 */
+	protected long getLastUsed() {
+		return lastUsed;
+	}
+
+	/**
+	 * Gets how many {@link FactoryHandle}s currently hold this object.
+	 *
+	 * @return The number of handles, or -1 if the object has been released for disposal.
+	 */
+	public int getReferenceCount() {
+		return references.get();
+	}
+
+	/**
+	 * Adds a handle reference to this object.
+	 *
+	 * @return If the reference was added, false if the object has already been released for disposal.
+	 */
+	protected boolean acquireReference() {
+		while (true) {
+			int count = references.get();
+
+			if (count < 0) {
+				return false;
+			}
+
+			if (references.compareAndSet(count, count + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Removes a handle reference from this object, when the last reference is removed the object is queued for disposal.
+	 */
+	protected void releaseReference() {
+		if (references.decrementAndGet() == 0) {
+			// No handles are left, so the object is taken out of the cache and disposed on the OpenGL thread.
+			evict();
+		}
+	}
+
+	/**
+	 * Takes this object out of the factory cache and queues it for disposal, only if no handles hold it.
+	 *
+	 * @return If the object was evicted.
+	 */
+	protected boolean evict() {
+		if (factory == null || !references.compareAndSet(0, -1)) {
+			return false;
+		}
+
+		factory.removeLoaded(this);
+		FlounderProcessors.get().sendRequest(new FactoryRequestDispose(factory, this));
+		return true;
 	}
 }
@@ -0,0 +1,37 @@
+package flounder.factory;
+
+import flounder.processing.opengl.*;
+
+/**
+ * A class that can process a request to dispose a factory object that no longer has any handles.
+ */
+public class FactoryRequestDispose implements RequestOpenGL {
+	private Factory factory;
+	private FactoryObject object;
+
+	/**
+	 * Creates a new factory dispose request.
+	 *
+	 * @param factory The factory to use when executing requests.
+	 * @param object The object to dispose.
+	 */
+	protected FactoryRequestDispose(Factory factory, FactoryObject object) {
+		this.factory = factory;
+		this.object = object;
+	}
+
+	@Override
+	public void executeRequestGL() {
+		// Frees any higher levels before the base object.
+		for (int level = object.getLevelCount() - 1; level > 0; level--) {
+			if (object.isLevelLoaded(level)) {
+				object.setLevelLoaded(level, false);
+				factory.disposeLevel(object, level);
+			}
+		}
+
+		factory.dispose(object);
+		object.setDataLoaded(false);
+		object.setFullyLoaded(false);
+	}
+}
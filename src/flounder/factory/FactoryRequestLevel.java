@@ -0,0 +1,69 @@
+package flounder.factory;
+
+import flounder.processing.*;
+import flounder.processing.opengl.*;
+import flounder.processing.resource.*;
+
+/**
+ * A class that can process a request to stream a higher detail level into a factory object.
+ */
+public class FactoryRequestLevel implements RequestResource {
+	private String name;
+	private Factory factory;
+	private FactoryObject object;
+	private FactoryBuilder builder;
+	private int level;
+	private int generation;
+
+	/**
+	 * Creates a new factory level request.
+	 *
+	 * @param name The name of the object being loaded.
+	 * @param factory The factory to use when executing requests.
+	 * @param object The object to load into.
+	 * @param builder The builder to load from.
+	 * @param level The detail level to load.
+	 * @param generation The generation of the request, used to find if the level was dropped while it was loading.
+	 */
+	protected FactoryRequestLevel(String name, Factory factory, FactoryObject object, FactoryBuilder builder, int level, int generation) {
+		this.name = name;
+		this.factory = factory;
+		this.object = object;
+		this.builder = builder;
+		this.level = level;
+		this.generation = generation;
+	}
+
+	@Override
+	public void executeRequestResource() {
+		// The level was dropped before it started loading.
+		if (!object.isLevelRequestCurrent(level, generation)) {
+			return;
+		}
+
+		// Loads the levels resource data into the object.
+		factory.loadLevelData(object, builder, name, level);
+
+		// The OpenGL part is only queued once the data is ready, so the OpenGL thread never waits on it.
+		FlounderProcessors.get().sendRequest((RequestOpenGL) this::createLevel);
+	}
+
+	protected void createLevel() {
+		synchronized (object) {
+			// The level was dropped while it was loading, so the result is thrown away.
+			if (!object.isLevelRequestCurrent(level, generation)) {
+				return;
+			}
+
+			if (!object.isLoaded()) {
+				// Created once the base level is loaded.
+				object.waitForBaseLevel(this, level);
+				return;
+			}
+
+			// Creates the level and marks it as usable.
+			factory.createLevel(object, builder, level);
+			object.finishLevel(level);
+		}
+	}
+}
@@ -41,7 +41,7 @@ public class FactoryRequestLoad implements RequestResource, RequestOpenGL {
 
 		while (object == null || !object.isDataLoaded()) {
 			if (timer == null) {
-				FlounderLogger.get().warning("Factory request for " + name + " is waiting for data!");
+				FlounderLogger.get().warning("Factory request for {} is waiting for data!", name);
 				timer = new Timer(5.0); // Waits 5 seconds for data, if it stays unloaded then this object is not loaded.
 			}
 
@@ -52,7 +52,7 @@ public class FactoryRequestLoad implements RequestResource, RequestOpenGL {
 				}
 
 				timer.resetStartTime();
-				FlounderLogger.get().error("Factory request for " + name + " failed! The object will not be loaded!");
+				FlounderLogger.get().error("Factory request for {} failed! The object will not be loaded!", name);
 			}
 
 			// Wait for resources to load into data...
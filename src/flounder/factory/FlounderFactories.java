@@ -0,0 +1,259 @@
+package flounder.factory;
+
+import flounder.framework.*;
+import flounder.logger.*;
+import flounder.maths.*;
+import flounder.maths.Timer;
+import flounder.processing.*;
+
+import java.util.*;
+
+/**
+ * A module used for keeping the memory used by all factories within a shared budget.
+ * Estimated sizes are collected from every loaded {@link FactoryObject}, and when the budget is exceeded detail levels and evictable objects are freed across factories, by cost and by how long ago they were last used.
+ */
+public class FlounderFactories extends Module {
+	private static final float ACCOUNT_INTERVAL = 1.0f;
+
+	private static volatile long frame = 0;
+
+	private long budget;
+	private long usage;
+	private Map<Factory, Long> factoryUsage;
+	private List<Candidate> candidates;
+	private Timer timerAccount;
+
+	/**
+	 * Creates a new factory budget manager.
+	 */
+	public FlounderFactories() {
+		super(FlounderLogger.class, FlounderProcessors.class);
+	}
+
+	@Handler.Function(Handler.FLAG_INIT)
+	public void init() {
+		this.budget = -1;
+		this.usage = 0;
+		this.factoryUsage = new HashMap<>();
+		this.candidates = new ArrayList<>();
+		this.timerAccount = new Timer(ACCOUNT_INTERVAL);
+	}
+
+	@Handler.Function(Handler.FLAG_UPDATE_PRE)
+	public void update() {
+		frame++;
+
+		if (!timerAccount.isPassedTime()) {
+			return;
+		}
+
+		timerAccount.resetStartTime();
+
+		account();
+
+		if (budget >= 0 && usage > budget) {
+			long before = usage;
+			evict();
+			FlounderLogger.get().warning("Factories were over the memory budget, freed " + (before - usage) + " of " + before + " bytes (budget " + budget + ")" + getBreakdown());
+		} else if (FlounderLogger.DETAILED) {
+			FlounderLogger.get().log("Factories are using " + usage + " bytes" + (budget >= 0 ? " of " + budget : "") + getBreakdown());
+		}
+	}
+
+	/**
+	 * Collects the estimated sizes and eviction candidates from every factory.
+	 */
+	private void account() {
+		usage = 0;
+		factoryUsage.clear();
+		candidates.clear();
+
+		for (Factory factory : Factory.getFactories()) {
+			long total = 0;
+
+			for (FactoryObject object : factory.getLoadedSnapshot()) {
+				if (!object.isLoaded()) {
+					continue;
+				}
+
+				long bytes = object.getEstimatedBytes();
+				total += bytes;
+
+				for (int level = object.getLevelCount() - 1; level > 0; level--) {
+					if (object.isLevelLoaded(level)) {
+						candidates.add(new Candidate(factory, object, level, object.getEstimatedLevelBytes(level)));
+					}
+				}
+
+				if (object.getReferenceCount() == 0 && factory.isEvictable(object)) {
+					candidates.add(new Candidate(factory, object, 0, bytes));
+				}
+			}
+
+			factoryUsage.put(factory, total);
+			usage += total;
+		}
+	}
+
+	/**
+	 * Frees candidates with the highest cost and oldest use first until the usage is within the budget.
+	 * Factories using more than their weighted share of the budget are evicted from first, and no factory is evicted below its minimum.
+	 */
+	private void evict() {
+		float totalWeight = 0.0f;
+		long totalMinimum = 0;
+
+		for (Factory factory : factoryUsage.keySet()) {
+			totalWeight += factory.getBudgetWeight();
+			totalMinimum += factory.getBudgetMinimum();
+		}
+
+		long shared = Math.max(budget - totalMinimum, 0);
+
+		for (Candidate candidate : candidates) {
+			Factory factory = candidate.factory;
+			long share = factory.getBudgetMinimum() + (long) (shared * (factory.getBudgetWeight() / totalWeight));
+			double age = frame - candidate.object.getLastUsed() + 1;
+			double score = candidate.bytes * age / factory.getBudgetWeight();
+
+			if (factoryUsage.get(factory) > share) {
+				score *= 2.0;
+			}
+
+			candidate.score = score;
+		}
+
+		candidates.sort((a, b) -> Double.compare(b.score, a.score));
+
+		// The bytes already freed from each object, so a object whose levels were dropped is not counted again when it is evicted whole.
+		Map<FactoryObject, Long> freed = new IdentityHashMap<>();
+		Set<FactoryObject> evicted = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		for (Candidate candidate : candidates) {
+			if (usage <= budget) {
+				break;
+			}
+
+			if (evicted.contains(candidate.object)) {
+				continue;
+			}
+
+			long factoryBytes = factoryUsage.get(candidate.factory);
+			long bytes = candidate.level > 0 ? candidate.bytes : candidate.bytes - freed.getOrDefault(candidate.object, 0L);
+
+			if (bytes <= 0 || factoryBytes - bytes < candidate.factory.getBudgetMinimum()) {
+				continue;
+			}
+
+			if (candidate.level > 0) {
+				if (!candidate.object.isLevelLoaded(candidate.level)) {
+					continue;
+				}
+
+				candidate.object.dropLevel(candidate.level);
+				freed.merge(candidate.object, bytes, Long::sum);
+			} else if (candidate.object.evict()) {
+				evicted.add(candidate.object);
+			} else {
+				continue;
+			}
+
+			factoryUsage.put(candidate.factory, factoryBytes - bytes);
+			usage -= bytes;
+		}
+
+		candidates.clear();
+	}
+
+	/**
+	 * Gets the usage of every factory as a string to be logged.
+	 *
+	 * @return The usage breakdown.
+	 */
+	private String getBreakdown() {
+		StringBuilder result = new StringBuilder();
+
+		for (Map.Entry<Factory, Long> entry : factoryUsage.entrySet()) {
+			result.append("\n    ").append(entry.getKey().getFactoryName()).append(": ").append(entry.getValue()).append(" bytes");
+		}
+
+		return result.toString();
+	}
+
+	/**
+	 * Gets the memory budget shared by all factories.
+	 *
+	 * @return The budget in bytes, -1 if there is no budget.
+	 */
+	public long getBudget() {
+		return budget;
+	}
+
+	/**
+	 * Sets the memory budget shared by all factories.
+	 *
+	 * @param budget The budget in bytes, -1 to disable the budget.
+	 */
+	public void setBudget(long budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Gets the estimated memory used by all factories, as of the last accounting pass.
+	 *
+	 * @return The usage in bytes.
+	 */
+	public long getUsage() {
+		return usage;
+	}
+
+	/**
+	 * Gets the estimated memory used by a factory, as of the last accounting pass.
+	 *
+	 * @param factory The factory.
+	 *
+	 * @return The usage in bytes.
+	 */
+	public long getUsage(Factory factory) {
+		Long result = factoryUsage.get(factory);
+		return result == null ? 0 : result;
+	}
+
+	/**
+	 * Gets the current frame count, used to find how recently factory objects were used.
+	 *
+	 * @return The frame count.
+	 */
+	protected static long getFrame() {
+		return frame;
+	}
+
+	@Handler.Function(Handler.FLAG_DISPOSE)
+	public void dispose() {
+		factoryUsage.clear();
+		candidates.clear();
+	}
+
+	@Module.Instance
+	public static FlounderFactories get() {
+		return (FlounderFactories) Framework.get().getInstance(FlounderFactories.class);
+	}
+
+	/**
+	 * A detail level or object that could be freed.
+	 */
+	private static class Candidate {
+		private Factory factory;
+		private FactoryObject object;
+		private int level;
+		private long bytes;
+		private double score;
+
+		private Candidate(Factory factory, FactoryObject object, int level, long bytes) {
+			this.factory = factory;
+			this.object = object;
+			this.level = level;
+			this.bytes = bytes;
+		}
+	}
+}
@@ -21,8 +21,22 @@ public class FlounderLogger extends Module {
 	public static final String ANSI_CYAN = "\u001B[36m";
 	public static final String ANSI_WHITE = "\u001B[37m";
 
-	private List<String> saveData;
+	private static final int SAVE_DATA_LINES = 2000;
+	private static final long FLUSH_INTERVAL = 1000;
+	private static final int LIMITER_CAPACITY = 256;
+
+	private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+	private static final ThreadLocal<StringBuilder> FORMAT_BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+	private Deque<String> saveData;
 	private int linesPrinted;
+	private LoggerRing ring;
+	private LoggerFile file;
+	private volatile LoggerBinary binary;
+	private volatile LoggerLimiter limiter;
+	private volatile long lastFlush;
+	private volatile LogLevel level;
+	private volatile DateCache dateCache;
 
 	/**
 	 * Creates a new logger manager.
@@ -33,8 +47,15 @@ public class FlounderLogger extends Module {
 
 	@Handler.Function(Handler.FLAG_INIT)
 	public void init() {
-		this.saveData = new ArrayList<>();
+		this.saveData = new ArrayDeque<>(SAVE_DATA_LINES);
 		this.linesPrinted = 0;
+		this.file = new LoggerFile(new File(Framework.get().getRoamingFolder().getPath(), "logs"));
+		this.lastFlush = System.currentTimeMillis();
+		this.level = LogLevel.LOG;
+		this.limiter = null;
+
+		// Makes sure queued logs are written if the program exits without disposing.
+		Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
 
 		// Logs all registered modules.
 		Framework.get().logModules();
@@ -42,6 +63,16 @@ public class FlounderLogger extends Module {
 
 	@Handler.Function(Handler.FLAG_UPDATE_ALWAYS)
 	public void update() {
+		LoggerLimiter currentLimiter = limiter;
+
+		if (currentLimiter != null) {
+			summarize(currentLimiter.drain(true));
+		}
+
+		// Lines are buffered, so the file is flushed every so often to keep it close to the console.
+		if (System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL) {
+			flushFile();
+		}
 	}
 
 	/**
@@ -51,19 +82,40 @@ public class FlounderLogger extends Module {
 	 * @param <T> The object type to be logged.
 	 */
 	public <T> void init(T value) {
-		if (getString(value).isEmpty()) {
-			System.out.println();
-		} else {
-			System.out.println(ANSI_GREEN + "INIT [" + getDateString() + "]: " + ANSI_RESET + getString(value));
-		}
+		dispatch(LogLevel.INIT, null, 1, value, null, null, null);
+	}
 
-		if (getString(value).isEmpty()) {
-			saveData.add("");
-		} else {
-			saveData.add("INIT [" + getDateString() + "]: " + getString(value).replaceAll("\u001B\\[[\\d;]*[^\\d;]", ""));
-		}
+	/**
+	 * Logs a registration info message, replacing the {} in the template with the argument. The argument is only formatted if INIT is enabled.
+	 *
+	 * @param template The message template.
+	 * @param arg The argument for the first {}.
+	 */
+	public void init(String template, Object arg) {
+		dispatch(LogLevel.INIT, template, 1, arg, null, null, null);
+	}
 
-		linesPrinted += getString(value).split("\n").length;
+	/**
+	 * Logs a registration info message, replacing each {} in the template with the next argument.
+	 *
+	 * @param template The message template.
+	 * @param arg1 The argument for the first {}.
+	 * @param arg2 The argument for the second {}.
+	 */
+	public void init(String template, Object arg1, Object arg2) {
+		dispatch(LogLevel.INIT, template, 2, arg1, arg2, null, null);
+	}
+
+	/**
+	 * Logs a registration info message, replacing each {} in the template with the next argument.
+	 *
+	 * @param template The message template.
+	 * @param arg1 The argument for the first {}.
+	 * @param arg2 The argument for the second {}.
+	 * @param arg3 The argument for the third {}.
+	 */
+	public void init(String template, Object arg1, Object arg2, Object arg3) {
+		dispatch(LogLevel.INIT, template, 3, arg1, arg2, arg3, null);
 	}
 
 	/**
@@ -73,19 +125,40 @@ public class FlounderLogger extends Module {
 	 * @param <T> The object type to be logged.
 	 */
 	public <T> void log(T value) {
-		if (getString(value).isEmpty()) {
-			System.out.println();
-		} else {
-			System.out.println(ANSI_YELLOW + "LOG [" + getDateString() + "]: " + ANSI_RESET + getString(value));
-		}
+		dispatch(LogLevel.LOG, null, 1, value, null, null, null);
+	}
 
-		if (getString(value).isEmpty()) {
-			saveData.add("");
-		} else {
-			saveData.add("LOG [" + getDateString() + "]: " + getString(value).replaceAll("\u001B\\[[\\d;]*[^\\d;]", ""));
-		}
+	/**
+	 * Logs a message, replacing the {} in the template with the argument. The argument is only formatted if LOG is enabled.
+	 *
+	 * @param template The message template.
+	 * @param arg The argument for the first {}.
+	 */
+	public void log(String template, Object arg) {
+		dispatch(LogLevel.LOG, template, 1, arg, null, null, null);
+	}
 
-		linesPrinted += getString(value).split("\n").length;
+	/**
+	 * Logs a message, replacing each {} in the template with the next argument.
+	 *
+	 * @param template The message template.
+	 * @param arg1 The argument for the first {}.
+	 * @param arg2 The argument for the second {}.
+	 */
+	public void log(String template, Object arg1, Object arg2) {
+		dispatch(LogLevel.LOG, template, 2, arg1, arg2, null, null);
+	}
+
+	/**
+	 * Logs a message, replacing each {} in the template with the next argument.
+	 *
+	 * @param template The message template.
+	 * @param arg1 The argument for the first {}.
+	 * @param arg2 The argument for the second {}.
+	 * @param arg3 The argument for the third {}.
+	 */
+	public void log(String template, Object arg1, Object arg2, Object arg3) {
+		dispatch(LogLevel.LOG, template, 3, arg1, arg2, arg3, null);
 	}
 
 	/**
@@ -95,19 +168,40 @@ public class FlounderLogger extends Module {
 	 * @param <T> The object type to be logged.
 	 */
 	public <T> void warning(T value) {
-		if (getString(value).isEmpty()) {
-			System.out.println();
-		} else {
-			System.out.println(ANSI_PURPLE + "WARNING [" + getDateString() + "]: " + ANSI_RESET + getString(value));
-		}
+		dispatch(LogLevel.WARNING, null, 1, value, null, null, null);
+	}
 
-		if (getString(value).isEmpty()) {
-			saveData.add("");
-		} else {
-			saveData.add("WARNING [" + getDateString() + "]: " + getString(value).replaceAll("\u001B\\[[\\d;]*[^\\d;]", ""));
-		}
+	/**
+	 * Logs a warning, replacing the {} in the template with the argument. The argument is only formatted if WARNING is enabled.
+	 *
+	 * @param template The message template.
+	 * @param arg The argument for the first {}.
+	 */
+	public void warning(String template, Object arg) {
+		dispatch(LogLevel.WARNING, template, 1, arg, null, null, null);
+	}
 
-		linesPrinted += getString(value).split("\n").length;
+	/**
+	 * Logs a warning, replacing each {} in the template with the next argument.
+	 *
+	 * @param template The message template.
+	 * @param arg1 The argument for the first {}.
+	 * @param arg2 The argument for the second {}.
+	 */
+	public void warning(String template, Object arg1, Object arg2) {
+		dispatch(LogLevel.WARNING, template, 2, arg1, arg2, null, null);
+	}
+
+	/**
+	 * Logs a warning, replacing each {} in the template with the next argument.
+	 *
+	 * @param template The message template.
+	 * @param arg1 The argument for the first {}.
+	 * @param arg2 The argument for the second {}.
+	 * @param arg3 The argument for the third {}.
+	 */
+	public void warning(String template, Object arg1, Object arg2, Object arg3) {
+		dispatch(LogLevel.WARNING, template, 3, arg1, arg2, arg3, null);
 	}
 
 	/**
@@ -117,19 +211,40 @@ public class FlounderLogger extends Module {
 	 * @param <T> The object type to be logged.
 	 */
 	public <T> void error(T value) {
-		if (getString(value).isEmpty()) {
-			System.out.println();
-		} else {
-			System.out.println(ANSI_RED + "ERROR [" + getDateString() + "]: " + ANSI_RESET + getString(value));
-		}
+		dispatch(LogLevel.ERROR, null, 1, value, null, null, null);
+	}
 
-		if (getString(value).isEmpty()) {
-			saveData.add("");
-		} else {
-			saveData.add("ERROR [" + getDateString() + "]: " + getString(value).replaceAll("\u001B\\[[\\d;]*[^\\d;]", ""));
-		}
+	/**
+	 * Logs an error, replacing the {} in the template with the argument. The argument is only formatted if ERROR is enabled.
+	 *
+	 * @param template The message template.
+	 * @param arg The argument for the first {}.
+	 */
+	public void error(String template, Object arg) {
+		dispatch(LogLevel.ERROR, template, 1, arg, null, null, null);
+	}
 
-		linesPrinted += getString(value).split("\n").length;
+	/**
+	 * Logs an error, replacing each {} in the template with the next argument.
+	 *
+	 * @param template The message template.
+	 * @param arg1 The argument for the first {}.
+	 * @param arg2 The argument for the second {}.
+	 */
+	public void error(String template, Object arg1, Object arg2) {
+		dispatch(LogLevel.ERROR, template, 2, arg1, arg2, null, null);
+	}
+
+	/**
+	 * Logs an error, replacing each {} in the template with the next argument.
+	 *
+	 * @param template The message template.
+	 * @param arg1 The argument for the first {}.
+	 * @param arg2 The argument for the second {}.
+	 * @param arg3 The argument for the third {}.
+	 */
+	public void error(String template, Object arg1, Object arg2, Object arg3) {
+		dispatch(LogLevel.ERROR, template, 3, arg1, arg2, arg3, null);
 	}
 
 	/**
@@ -138,20 +253,342 @@ public class FlounderLogger extends Module {
 	 * @param exception The exception added to the log file and possibly to your IDES console.
 	 */
 	public void exception(Exception exception) {
-		System.err.println(ANSI_PURPLE + "EXCEPTION [" + getDateString() + "]: " + ANSI_RESET + getString(exception));
-		exception.printStackTrace();
+		dispatch(LogLevel.EXCEPTION, null, 1, exception, null, null, exception);
+	}
+
+	/**
+	 * Gets if lines of a level are being logged, this can be used to skip building expensive messages.
+	 *
+	 * @param level The level to check.
+	 *
+	 * @return If the level is logged.
+	 */
+	public boolean isEnabled(LogLevel level) {
+		LoggerBinary current = binary;
+		return level.isAtLeast(this.level) || (current != null && current.isEnabled(level));
+	}
+
+	/**
+	 * Gets the lowest level being logged.
+	 *
+	 * @return The level threshold.
+	 */
+	public LogLevel getLevel() {
+		return level;
+	}
+
+	/**
+	 * Sets the lowest level being logged, lines below this are dropped before they are formatted.
+	 *
+	 * @param level The level threshold.
+	 */
+	public void setLevel(LogLevel level) {
+		this.level = level;
+	}
+
+	/**
+	 * Sends a message to the text log and the binary log, for each one that has the level enabled.
+	 *
+	 * @param level The level of the message.
+	 * @param template The message template, or null if the first argument is the whole message.
+	 * @param count The number of arguments given.
+	 * @param arg1 The first argument.
+	 * @param arg2 The second argument.
+	 * @param arg3 The third argument.
+	 * @param exception The exception to log, can be null.
+	 */
+	private void dispatch(LogLevel level, String template, int count, Object arg1, Object arg2, Object arg3, Throwable exception) {
+		boolean text = level.isAtLeast(this.level);
+		LoggerBinary current = binary;
+		boolean binaryText = current != null && current.isEnabled(level);
+
+		if (!text && !binaryText) {
+			return;
+		}
+
+		String message = template == null ? getString(arg1) : null;
+		LoggerLimiter currentLimiter = limiter;
+
+		if (currentLimiter != null) {
+			// The limit is per rendered message, so different messages from the same template are counted apart.
+			message = message != null ? message : format(template, count, arg1, arg2, arg3);
+			boolean allowed = currentLimiter.allow(message, level);
+
+			if (currentLimiter.hasPending()) {
+				summarize(currentLimiter.drain(false));
+			}
+
+			if (!allowed) {
+				return;
+			}
+		}
+
+		if (text) {
+			write(level, message != null ? message : format(template, count, arg1, arg2, arg3), exception);
+		}
+
+		if (binaryText) {
+			current.write(level, template, count, arg1, arg2, arg3, exception);
+		}
+	}
+
+	/**
+	 * Logs a "(repeated K times)" line for each key that had messages suppressed by the rate limit.
+	 *
+	 * @param summaries The summaries to log.
+	 */
+	private void summarize(List<LoggerLimiter.Summary> summaries) {
+		for (LoggerLimiter.Summary summary : summaries) {
+			LogLevel summaryLevel = summary.getLevel();
+			String message = summary.getMessage();
+
+			if (summaryLevel.isAtLeast(this.level)) {
+				write(summaryLevel, message + " (repeated " + summary.getRepeated() + " times)", null);
+			}
+
+			LoggerBinary current = binary;
+
+			if (current != null && current.isEnabled(summaryLevel)) {
+				current.write(summaryLevel, "{} (repeated {} times)", 2, message, summary.getRepeated(), null, null);
+			}
+		}
+	}
+
+	/**
+	 * Sets how often the same message can be logged, messages are the same if their text is the same once formatted.
+	 * Suppressed messages are counted and logged as a single "(repeated K times)" line once the interval ends. Rate limiting is off until this is called.
+	 *
+	 * @param limit The times a message can be logged each interval, or -1 to disable rate limiting.
+	 * @param interval The length of a interval, in seconds.
+	 */
+	public void setRateLimit(int limit, float interval) {
+		LoggerLimiter current = limiter;
+		this.limiter = limit < 0 ? null : new LoggerLimiter(LIMITER_CAPACITY, limit, interval);
+
+		if (current != null) {
+			summarize(current.drain(false));
+		}
+	}
+
+	/**
+	 * Writes a log line, into the async ring if it is enabled, otherwise on the calling thread.
+	 *
+	 * @param level The level of the line.
+	 * @param message The message to log.
+	 * @param exception The exception to log, can be null.
+	 */
+	private void write(LogLevel level, String message, Throwable exception) {
+		LoggerRing current = ring;
 
-		if (getString(exception).isEmpty()) {
-			saveData.add("");
+		if (current == null || !current.write(level, message, exception)) {
+			output(System.currentTimeMillis(), level, message, exception);
+		}
+	}
+
+	/**
+	 * Writes a log line to the console, the log file, and the save data.
+	 *
+	 * @param time The time the line was logged, in milliseconds since the epoch.
+	 * @param level The level of the line.
+	 * @param message The message to log.
+	 * @param exception The exception to log, can be null.
+	 */
+	private void output(long time, LogLevel level, String message, Throwable exception) {
+		if (message.isEmpty()) {
+			System.out.println();
+			save("");
+			linesPrinted++;
+			return;
+		}
+
+		String date = getDateString(time);
+		StringBuilder builder = BUILDER.get();
+		builder.setLength(0);
+		builder.append(level.getColour()).append(level.getLabel()).append(" [").append(date).append("]: ").append(ANSI_RESET).append(message);
+
+		if (exception != null) {
+			System.err.println(builder);
+			exception.printStackTrace();
 		} else {
-			saveData.add("EXCEPTION [" + getDateString() + "]: " + getString(exception));
+			System.out.println(builder);
+		}
 
+		builder.setLength(0);
+		builder.append(level.getLabel()).append(" [").append(date).append("]: ");
+		stripAnsi(message, builder);
+		save(builder.toString());
+
+		if (exception != null) {
 			for (StackTraceElement element : exception.getStackTrace()) {
-				saveData.add("    " + element);
+				save("    " + element);
+			}
+		}
+
+		linesPrinted += countLines(message);
+
+		// Errors are flushed straight away, so they are in the file if the program dies right after.
+		if (exception != null || level == LogLevel.ERROR) {
+			flushFile();
+		}
+	}
+
+	/**
+	 * Writes a line to the log file, and keeps it in the save data tail.
+	 *
+	 * @param line The line to save.
+	 */
+	private void save(String line) {
+		LoggerFile current = file;
+
+		if (current != null) {
+			current.write(line);
+		}
+
+		synchronized (saveData) {
+			if (saveData.size() >= SAVE_DATA_LINES) {
+				saveData.removeFirst();
+			}
+
+			saveData.addLast(line);
+		}
+	}
+
+	/**
+	 * Writes buffered lines to the log file.
+	 */
+	private void flushFile() {
+		LoggerFile current = file;
+		LoggerBinary currentBinary = binary;
+		lastFlush = System.currentTimeMillis();
+
+		if (current != null) {
+			current.flush();
+		}
+
+		if (currentBinary != null) {
+			currentBinary.flush();
+		}
+	}
+
+	/**
+	 * Sets when the log file is rotated into a new file.
+	 *
+	 * @param maxBytes The size a log file can grow to before rotating, -1 for no size limit.
+	 * @param maxSeconds The time a log file is written to before rotating, -1 for no time limit.
+	 * @param compress If rotated log files are compressed with gzip.
+	 */
+	public void setRotation(long maxBytes, float maxSeconds, boolean compress) {
+		if (file != null) {
+			file.setRotation(maxBytes, maxSeconds, compress);
+		}
+	}
+
+	/**
+	 * Starts or stops writing a compact binary log next to the text log, it can be read back with {@link LoggerDecoder}.
+	 * The binary log has its own level, so detailed records can be kept in it while the text log stays quiet.
+	 *
+	 * @param level The lowest level written to the binary log, or null to stop writing it.
+	 */
+	public void setBinary(LogLevel level) {
+		LoggerBinary current = binary;
+
+		if (level == null) {
+			this.binary = null;
+
+			if (current != null) {
+				current.close();
 			}
+
+			return;
+		}
+
+		if (current != null) {
+			current.setLevel(level);
+			return;
+		}
+
+		File textFile = getLogFile();
+
+		if (textFile == null) {
+			return;
+		}
+
+		try {
+			this.binary = new LoggerBinary(new File(textFile.getParentFile(), textFile.getName().replace(".log", ".flog")), level);
+		} catch (IOException e) {
+			error("Could not create binary log!");
+			exception(e);
+		}
+	}
+
+	/**
+	 * Gets the binary log being written to.
+	 *
+	 * @return The binary log, null if it is not enabled.
+	 */
+	public LoggerBinary getBinary() {
+		return binary;
+	}
+
+	/**
+	 * Gets the log file currently being written to.
+	 *
+	 * @return The current log file, null if the logger is not initialized.
+	 */
+	public File getLogFile() {
+		return file == null ? null : file.getFile();
+	}
+
+	/**
+	 * Enables asynchronous logging with a ring of 8192 records that blocks when full.
+	 */
+	public void setAsync() {
+		setAsync(8192, LoggerRing.OverflowPolicy.BLOCK);
+	}
+
+	/**
+	 * Enables asynchronous logging, callers write into a preallocated ring and a background thread writes to the console and log file.
+	 *
+	 * @param capacity The number of records the ring holds.
+	 * @param policy What callers do when the ring is full.
+	 */
+	public void setAsync(int capacity, LoggerRing.OverflowPolicy policy) {
+		setSync();
+		this.ring = new LoggerRing(capacity, policy, this::output);
+	}
+
+	/**
+	 * Disables asynchronous logging, writing any queued records first.
+	 */
+	public void setSync() {
+		LoggerRing current = ring;
+		this.ring = null;
+
+		if (current != null) {
+			current.close(1000);
+		}
+	}
+
+	/**
+	 * Gets if asynchronous logging is enabled.
+	 *
+	 * @return If logging is asynchronous.
+	 */
+	public boolean isAsync() {
+		return ring != null;
+	}
+
+	/**
+	 * Blocks until all queued log records have been written, and flushes the log file.
+	 */
+	public void flush() {
+		LoggerRing current = ring;
+
+		if (current != null) {
+			current.flush(1000);
 		}
 
-		linesPrinted += getString(exception).split("\n").length;
+		flushFile();
 	}
 
 	/**
@@ -171,69 +608,155 @@ public class FlounderLogger extends Module {
 	}
 
 	/**
-	 * Gets the string of the current date.
+	 * Replaces each {} in a template with the next argument.
 	 *
-	 * @return Returns the string of the current date as [hour:minute:second | day/month/year].
+	 * @param template The message template.
+	 * @param count The number of arguments given.
+	 * @param arg1 The first argument.
+	 * @param arg2 The second argument.
+	 * @param arg3 The third argument.
+	 *
+	 * @return The formatted message.
 	 */
-	private String getDateString() {
-		int hour = Calendar.getInstance().get(Calendar.HOUR_OF_DAY);
-		int minute = Calendar.getInstance().get(Calendar.MINUTE);
-		int second = Calendar.getInstance().get(Calendar.SECOND) + 1;
-		return hour + "." + minute + "." + second;
+	private String format(String template, int count, Object arg1, Object arg2, Object arg3) {
+		if (template == null) {
+			return "NULL";
+		}
+
+		StringBuilder builder = FORMAT_BUILDER.get();
+		builder.setLength(0);
+		int start = 0;
+		int used = 0;
+		int index;
+
+		while (used < count && (index = template.indexOf("{}", start)) != -1) {
+			builder.append(template, start, index);
+			builder.append(getString(used == 0 ? arg1 : used == 1 ? arg2 : arg3));
+			start = index + 2;
+			used++;
+		}
+
+		builder.append(template, start, template.length());
+		return builder.toString();
 	}
 
 	/**
-	 * Finds / Generates the logs save folder.
+	 * Appends a string without its ANSI colour codes.
 	 *
-	 * @return The path to the folder.
-	 *
-	 * @throws IOException Failed to create / find folder.
+	 * @param value The string to strip.
+	 * @param builder The builder to append to.
 	 */
-	private String getLogsSave() throws IOException {
-		File saveDirectory = new File(Framework.get().getRoamingFolder().getPath(), "logs");
+	private static void stripAnsi(String value, StringBuilder builder) {
+		int start = 0;
+		int index;
+
+		while ((index = value.indexOf('\u001B', start)) != -1) {
+			builder.append(value, start, index);
+			int end = index + 1;
 
-		if (!saveDirectory.exists()) {
-			System.out.println("Creating directory: " + saveDirectory);
+			if (end < value.length() && value.charAt(end) == '[') {
+				end++;
 
-			try {
-				saveDirectory.mkdir();
-			} catch (SecurityException e) {
-				error("Filed to create logging folder: " + saveDirectory.getAbsolutePath());
-				exception(e);
+				while (end < value.length() && (Character.isDigit(value.charAt(end)) || value.charAt(end) == ';')) {
+					end++;
+				}
+
+				// The final character ends the code, like the m in a colour code.
+				end = Math.min(end + 1, value.length());
 			}
+
+			start = end;
 		}
 
-		String result = saveDirectory + "/" + Calendar.getInstance().get(Calendar.HOUR) + "." + Calendar.getInstance().get(Calendar.MINUTE) + "." + (Calendar.getInstance().get(Calendar.SECOND) + 1) + "-" + (Calendar.getInstance().get(Calendar.MONTH) + 1) + "." + Calendar.getInstance().get(Calendar.DAY_OF_MONTH) + "." + Calendar.getInstance().get(Calendar.YEAR) + ".log";
-		File resultingFile = new File(result);
+		builder.append(value, start, value.length());
+	}
 
-		if (!resultingFile.exists()) {
-			resultingFile.createNewFile();
+	/**
+	 * Counts the lines in a message.
+	 *
+	 * @param value The message.
+	 *
+	 * @return The number of lines.
+	 */
+	private static int countLines(String value) {
+		int lines = 1;
+
+		for (int i = 0; i < value.length(); i++) {
+			if (value.charAt(i) == '\n') {
+				lines++;
+			}
 		}
 
-		FileOutputStream outputFile = new FileOutputStream(resultingFile, false);
-		outputFile.close();
+		return lines;
+	}
+
+	/**
+	 * Gets the string of a date, the string is cached so lines logged within the same second share it.
+	 *
+	 * @param time The time in milliseconds since the epoch.
+	 *
+	 * @return Returns the string of the date as [hour:minute:second].
+	 */
+	private String getDateString(long time) {
+		long second = time / 1000;
+		DateCache cache = dateCache;
+
+		if (cache == null || cache.second != second) {
+			Calendar calendar = Calendar.getInstance();
+			calendar.setTimeInMillis(time);
+			cache = new DateCache(second, calendar.get(Calendar.HOUR_OF_DAY) + "." + calendar.get(Calendar.MINUTE) + "." + (calendar.get(Calendar.SECOND) + 1));
+			dateCache = cache;
+		}
 
-		return result;
+		return cache.string;
 	}
 
+	/**
+	 * Gets a copy of the most recent lines logged, at most 2000 lines are kept.
+	 *
+	 * @return The recent log lines.
+	 */
 	protected List<String> getSaveData() {
-		return saveData;
+		synchronized (saveData) {
+			return new ArrayList<>(saveData);
+		}
 	}
 
 	@Handler.Function(Handler.FLAG_DISPOSE)
 	public void dispose() {
-		try (PrintWriter out = new PrintWriter(getLogsSave())) {
-			for (String line : saveData) {
-				out.println(line);
-			}
-		} catch (IOException e) {
-			System.err.println("Could not save logs!");
-			e.printStackTrace();
+		LoggerLimiter currentLimiter = limiter;
+
+		if (currentLimiter != null) {
+			summarize(currentLimiter.drain(false));
 		}
+
+		setSync();
+
+		LoggerFile current = file;
+		this.file = null;
+
+		if (current != null) {
+			current.close();
+		}
+
+		setBinary(null);
 	}
 
 	@Module.Instance
 	public static FlounderLogger get() {
 		return (FlounderLogger) Framework.get().getInstance(FlounderLogger.class);
 	}
+
+	/**
+	 * The date string of a second.
+	 */
+	private static class DateCache {
+		private final long second;
+		private final String string;
+
+		private DateCache(long second, String string) {
+			this.second = second;
+			this.string = string;
+		}
+	}
 }
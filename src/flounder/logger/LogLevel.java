@@ -0,0 +1,49 @@
+package flounder.logger;
+
+/**
+ * The levels lines can be logged at, in order of severity.
+ */
+public enum LogLevel {
+	LOG("LOG", FlounderLogger.ANSI_YELLOW),
+	INIT("INIT", FlounderLogger.ANSI_GREEN),
+	WARNING("WARNING", FlounderLogger.ANSI_PURPLE),
+	ERROR("ERROR", FlounderLogger.ANSI_RED),
+	EXCEPTION("EXCEPTION", FlounderLogger.ANSI_PURPLE);
+
+	private final String label;
+	private final String colour;
+
+	LogLevel(String label, String colour) {
+		this.label = label;
+		this.colour = colour;
+	}
+
+	/**
+	 * Gets the name written before lines of this level.
+	 *
+	 * @return The level name.
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * Gets the console colour of this level.
+	 *
+	 * @return The ANSI colour code.
+	 */
+	public String getColour() {
+		return colour;
+	}
+
+	/**
+	 * Gets if lines of this level are logged when the threshold is another level.
+	 *
+	 * @param threshold The lowest level being logged.
+	 *
+	 * @return If this level is logged.
+	 */
+	public boolean isAtLeast(LogLevel threshold) {
+		return ordinal() >= threshold.ordinal();
+	}
+}
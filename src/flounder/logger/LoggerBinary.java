@@ -0,0 +1,285 @@
+package flounder.logger;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * A compact binary log file. Message templates are written once and referenced by id, and arguments are written as typed values, so a record costs a few bytes and no formatting.
+ * Files are read back into text with {@link LoggerDecoder}.
+ */
+public class LoggerBinary {
+	protected static final int MAGIC = 0x464C4F47; // FLOG
+	protected static final int VERSION = 1;
+
+	protected static final byte RECORD_TEMPLATE = 1;
+	protected static final byte RECORD_LOG = 2;
+
+	protected static final int FLAG_EXCEPTION = 0x80;
+
+	protected static final byte ARG_NULL = 0;
+	protected static final byte ARG_INT = 1;
+	protected static final byte ARG_LONG = 2;
+	protected static final byte ARG_FLOAT = 3;
+	protected static final byte ARG_DOUBLE = 4;
+	protected static final byte ARG_BOOLEAN = 5;
+	protected static final byte ARG_STRING = 6;
+
+	/**
+	 * The template id used for messages that were not logged with a template, the message is the only argument.
+	 */
+	protected static final int PLAIN_TEMPLATE = 0;
+
+	private static final int BUFFER_SIZE = 65536;
+
+	private final File file;
+	private final OutputStream out;
+	private final byte[] buffer;
+	private int position;
+	private final Map<String, Integer> templates;
+	private final long nanoOffset;
+	private volatile LogLevel level;
+	private boolean closed;
+
+	/**
+	 * Creates a new binary log file.
+	 *
+	 * @param file The file to write to, this is replaced if it exists.
+	 * @param level The lowest level written to this file.
+	 *
+	 * @throws IOException If the file could not be created.
+	 */
+	public LoggerBinary(File file, LogLevel level) throws IOException {
+		this.file = file;
+		this.out = new FileOutputStream(file, false);
+		this.buffer = new byte[BUFFER_SIZE];
+		this.position = 0;
+		this.templates = new HashMap<>();
+		this.nanoOffset = System.currentTimeMillis() * 1000000L - System.nanoTime();
+		this.level = level;
+		this.closed = false;
+
+		writeInt(MAGIC);
+		writeByte(VERSION);
+		templates.put("{}", PLAIN_TEMPLATE);
+		writeTemplate(PLAIN_TEMPLATE, "{}");
+	}
+
+	/**
+	 * Writes a record.
+	 *
+	 * @param level The level of the record.
+	 * @param template The message template, or null if the first argument is the whole message.
+	 * @param count The number of arguments given.
+	 * @param arg1 The first argument.
+	 * @param arg2 The second argument.
+	 * @param arg3 The third argument.
+	 * @param exception The exception of the record, can be null.
+	 */
+	public synchronized void write(LogLevel level, String template, int count, Object arg1, Object arg2, Object arg3, Throwable exception) {
+		if (closed) {
+			return;
+		}
+
+		try {
+			int id = PLAIN_TEMPLATE;
+
+			if (template != null) {
+				Integer existing = templates.get(template);
+
+				if (existing == null) {
+					existing = templates.size();
+					templates.put(template, existing);
+					writeTemplate(existing, template);
+				}
+
+				id = existing;
+			}
+
+			writeByte(RECORD_LOG);
+			writeLong(nanoOffset + System.nanoTime());
+			writeByte(level.ordinal() | (exception != null ? FLAG_EXCEPTION : 0));
+			writeVarInt(id);
+			writeByte(count);
+
+			for (int i = 0; i < count; i++) {
+				writeArg(i == 0 ? arg1 : i == 1 ? arg2 : arg3);
+			}
+
+			if (exception != null) {
+				StringWriter trace = new StringWriter();
+				exception.printStackTrace(new PrintWriter(trace));
+				writeString(trace.toString());
+			}
+		} catch (IOException e) {
+			System.err.println("Could not write to binary log " + file + "!");
+			e.printStackTrace();
+			closed = true;
+		}
+	}
+
+	private void writeTemplate(int id, String template) throws IOException {
+		writeByte(RECORD_TEMPLATE);
+		writeVarInt(id);
+		writeString(template);
+	}
+
+	private void writeArg(Object arg) throws IOException {
+		if (arg == null) {
+			writeByte(ARG_NULL);
+		} else if (arg instanceof Integer || arg instanceof Short || arg instanceof Byte) {
+			writeByte(ARG_INT);
+			writeInt(((Number) arg).intValue());
+		} else if (arg instanceof Long) {
+			writeByte(ARG_LONG);
+			writeLong((Long) arg);
+		} else if (arg instanceof Float) {
+			writeByte(ARG_FLOAT);
+			writeInt(Float.floatToRawIntBits((Float) arg));
+		} else if (arg instanceof Double) {
+			writeByte(ARG_DOUBLE);
+			writeLong(Double.doubleToRawLongBits((Double) arg));
+		} else if (arg instanceof Boolean) {
+			writeByte(ARG_BOOLEAN);
+			writeByte((Boolean) arg ? 1 : 0);
+		} else {
+			writeByte(ARG_STRING);
+			writeString(arg.toString());
+		}
+	}
+
+	private void writeString(String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length);
+
+		if (bytes.length > buffer.length - position) {
+			drain();
+
+			if (bytes.length > buffer.length) {
+				out.write(bytes);
+				return;
+			}
+		}
+
+		System.arraycopy(bytes, 0, buffer, position, bytes.length);
+		position += bytes.length;
+	}
+
+	private void writeVarInt(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		writeByte(value);
+	}
+
+	private void writeLong(long value) throws IOException {
+		writeInt((int) (value >>> 32));
+		writeInt((int) value);
+	}
+
+	private void writeInt(int value) throws IOException {
+		if (buffer.length - position < 4) {
+			drain();
+		}
+
+		buffer[position++] = (byte) (value >>> 24);
+		buffer[position++] = (byte) (value >>> 16);
+		buffer[position++] = (byte) (value >>> 8);
+		buffer[position++] = (byte) value;
+	}
+
+	private void writeByte(int value) throws IOException {
+		if (position == buffer.length) {
+			drain();
+		}
+
+		buffer[position++] = (byte) value;
+	}
+
+	/**
+	 * Writes the encoded bytes out to the file.
+	 *
+	 * @throws IOException If the file could not be written.
+	 */
+	private void drain() throws IOException {
+		if (position > 0) {
+			out.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	/**
+	 * Writes buffered records to the file.
+	 */
+	public synchronized void flush() {
+		if (closed) {
+			return;
+		}
+
+		try {
+			drain();
+		} catch (IOException e) {
+			System.err.println("Could not flush binary log " + file + "!");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Closes the file, records written after this are ignored.
+	 */
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+
+		closed = true;
+
+		try {
+			drain();
+			out.close();
+		} catch (IOException e) {
+			System.err.println("Could not close binary log " + file + "!");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Gets if records of a level are written to this file.
+	 *
+	 * @param level The level to check.
+	 *
+	 * @return If the level is written.
+	 */
+	public boolean isEnabled(LogLevel level) {
+		return level.isAtLeast(this.level);
+	}
+
+	/**
+	 * Gets the lowest level written to this file.
+	 *
+	 * @return The level threshold.
+	 */
+	public LogLevel getLevel() {
+		return level;
+	}
+
+	/**
+	 * Sets the lowest level written to this file, this is separate from the text log level.
+	 *
+	 * @param level The level threshold.
+	 */
+	public void setLevel(LogLevel level) {
+		this.level = level;
+	}
+
+	/**
+	 * Gets the file being written to.
+	 *
+	 * @return The binary log file.
+	 */
+	public File getFile() {
+		return file;
+	}
+}
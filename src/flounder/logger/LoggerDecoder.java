@@ -0,0 +1,229 @@
+package flounder.logger;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.text.*;
+import java.util.*;
+
+/**
+ * Reads binary log files written by {@link LoggerBinary} and renders them back into text.
+ * Usage: {@code LoggerDecoder <file> [-level LEVEL] [-from TIME] [-to TIME]}, where a time is either milliseconds since the epoch or {@code yyyy-MM-dd'T'HH:mm:ss}.
+ */
+public class LoggerDecoder {
+	private static final String TIME_FORMAT = "yyyy-MM-dd'T'HH:mm:ss";
+
+	private DataInputStream in;
+	private List<String> templates;
+	private LogLevel level;
+	private long fromNanos;
+	private long toNanos;
+	private SimpleDateFormat dateFormat;
+
+	/**
+	 * Creates a new decoder.
+	 *
+	 * @param in The binary log to read from.
+	 * @param level The lowest level rendered.
+	 * @param fromMillis The earliest record time rendered, in milliseconds since the epoch.
+	 * @param toMillis The latest record time rendered, in milliseconds since the epoch.
+	 */
+	public LoggerDecoder(InputStream in, LogLevel level, long fromMillis, long toMillis) {
+		this.in = new DataInputStream(new BufferedInputStream(in));
+		this.templates = new ArrayList<>();
+		this.level = level;
+		this.fromNanos = fromMillis == Long.MIN_VALUE ? Long.MIN_VALUE : fromMillis * 1000000L;
+		this.toNanos = toMillis == Long.MAX_VALUE ? Long.MAX_VALUE : toMillis * 1000000L + 999999L;
+		this.dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+	}
+
+	/**
+	 * Renders every matching record as a line of text.
+	 *
+	 * @param output Where the lines are written to.
+	 *
+	 * @return The number of records rendered.
+	 *
+	 * @throws IOException If the file could not be read or is not a binary log.
+	 */
+	public int decode(PrintStream output) throws IOException {
+		if (in.readInt() != LoggerBinary.MAGIC) {
+			throw new IOException("Not a binary log file!");
+		}
+
+		int version = in.readUnsignedByte();
+
+		if (version != LoggerBinary.VERSION) {
+			throw new IOException("Unsupported binary log version " + version + "!");
+		}
+
+		LogLevel[] levels = LogLevel.values();
+		Object[] args = new Object[3];
+		StringBuilder builder = new StringBuilder();
+		int rendered = 0;
+		int type;
+
+		while ((type = in.read()) != -1) {
+			if (type == LoggerBinary.RECORD_TEMPLATE) {
+				int id = readVarInt();
+				String template = readString();
+
+				while (templates.size() <= id) {
+					templates.add(null);
+				}
+
+				templates.set(id, template);
+				continue;
+			} else if (type != LoggerBinary.RECORD_LOG) {
+				throw new IOException("Unknown record type " + type + "!");
+			}
+
+			long time = in.readLong();
+			int flags = in.readUnsignedByte();
+			LogLevel recordLevel = levels[flags & ~LoggerBinary.FLAG_EXCEPTION];
+			int id = readVarInt();
+			int count = in.readUnsignedByte();
+
+			for (int i = 0; i < count; i++) {
+				Object arg = readArg();
+
+				if (i < args.length) {
+					args[i] = arg;
+				}
+			}
+
+			String trace = (flags & LoggerBinary.FLAG_EXCEPTION) != 0 ? readString() : null;
+
+			if (!recordLevel.isAtLeast(level) || time < fromNanos || time > toNanos) {
+				continue;
+			}
+
+			builder.setLength(0);
+			builder.append(recordLevel.getLabel()).append(" [").append(dateFormat.format(new Date(time / 1000000L))).append("]: ");
+			render(id < templates.size() ? templates.get(id) : null, args, Math.min(count, args.length), builder);
+
+			if (trace != null) {
+				builder.append('\n').append(trace.trim());
+			}
+
+			output.println(builder);
+			rendered++;
+		}
+
+		return rendered;
+	}
+
+	private static void render(String template, Object[] args, int count, StringBuilder builder) {
+		if (template == null) {
+			builder.append("<unknown template>");
+			return;
+		}
+
+		int start = 0;
+		int used = 0;
+		int index;
+
+		while (used < count && (index = template.indexOf("{}", start)) != -1) {
+			builder.append(template, start, index);
+			builder.append(args[used] == null ? "NULL" : args[used]);
+			start = index + 2;
+			used++;
+		}
+
+		builder.append(template, start, template.length());
+	}
+
+	private Object readArg() throws IOException {
+		int type = in.readUnsignedByte();
+
+		switch (type) {
+			case LoggerBinary.ARG_NULL:
+				return null;
+			case LoggerBinary.ARG_INT:
+				return in.readInt();
+			case LoggerBinary.ARG_LONG:
+				return in.readLong();
+			case LoggerBinary.ARG_FLOAT:
+				return in.readFloat();
+			case LoggerBinary.ARG_DOUBLE:
+				return in.readDouble();
+			case LoggerBinary.ARG_BOOLEAN:
+				return in.readBoolean();
+			case LoggerBinary.ARG_STRING:
+				return readString();
+			default:
+				throw new IOException("Unknown argument type " + type + "!");
+		}
+	}
+
+	private String readString() throws IOException {
+		byte[] bytes = new byte[readVarInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private int readVarInt() throws IOException {
+		int value = 0;
+		int shift = 0;
+		int b;
+
+		do {
+			b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+
+		return value;
+	}
+
+	private static long parseTime(String value) throws ParseException {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			return new SimpleDateFormat(TIME_FORMAT).parse(value).getTime();
+		}
+	}
+
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.err.println("Usage: LoggerDecoder <file> [-level LEVEL] [-from TIME] [-to TIME]");
+			System.err.println("Times are milliseconds since the epoch or " + TIME_FORMAT + ", levels are " + Arrays.toString(LogLevel.values()) + ".");
+			System.exit(1);
+		}
+
+		LogLevel level = LogLevel.LOG;
+		long from = Long.MIN_VALUE;
+		long to = Long.MAX_VALUE;
+
+		try {
+			for (int i = 1; i < args.length - 1; i += 2) {
+				switch (args[i]) {
+					case "-level":
+						level = LogLevel.valueOf(args[i + 1].toUpperCase());
+						break;
+					case "-from":
+						from = parseTime(args[i + 1]);
+						break;
+					case "-to":
+						to = parseTime(args[i + 1]);
+						break;
+					default:
+						System.err.println("Unknown option " + args[i] + "!");
+						System.exit(1);
+				}
+			}
+		} catch (IllegalArgumentException | ParseException e) {
+			System.err.println("Invalid option: " + e.getMessage());
+			System.exit(1);
+		}
+
+		try (InputStream in = new FileInputStream(args[0])) {
+			new LoggerDecoder(in, level, from, to).decode(System.out);
+		} catch (EOFException e) {
+			// The file ends part way through a record, the program writing it was likely killed.
+			System.err.println("Binary log ends with a incomplete record.");
+		} catch (IOException e) {
+			System.err.println("Could not decode " + args[0] + ": " + e.getMessage());
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,214 @@
+package flounder.logger;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.zip.*;
+
+/**
+ * A log file that lines are streamed into as they are logged. The file is rotated into a new one once it gets too large or too old, and rotated files can be compressed with gzip in the background.
+ */
+public class LoggerFile {
+	private static final int BUFFER_SIZE = 16384;
+
+	private File directory;
+	private long maxBytes;
+	private long maxMillis;
+	private boolean compress;
+
+	private File file;
+	private Writer writer;
+	private long bytesWritten;
+	private long openedTime;
+
+	/**
+	 * Creates a new log file in a directory, files are not rotated until {@link #setRotation(long, float, boolean)} is called.
+	 *
+	 * @param directory The directory to write log files into.
+	 */
+	public LoggerFile(File directory) {
+		this.directory = directory;
+		this.maxBytes = -1;
+		this.maxMillis = -1;
+		this.compress = false;
+
+		if (!directory.exists()) {
+			System.out.println("Creating directory: " + directory);
+
+			if (!directory.mkdirs()) {
+				System.err.println("Filed to create logging folder: " + directory.getAbsolutePath());
+			}
+		}
+
+		open();
+	}
+
+	/**
+	 * Writes a line to the file, rotating the file first if it is due.
+	 *
+	 * @param line The line to write.
+	 */
+	public synchronized void write(String line) {
+		if (writer == null) {
+			return;
+		}
+
+		if ((maxBytes > 0 && bytesWritten >= maxBytes) || (maxMillis > 0 && System.currentTimeMillis() - openedTime >= maxMillis)) {
+			rotate();
+		}
+
+		try {
+			writer.write(line);
+			writer.write('\n');
+			bytesWritten += utf8Length(line) + 1;
+		} catch (IOException e) {
+			System.err.println("Could not write to log file " + file + "!");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Writes any buffered lines to the file.
+	 */
+	public synchronized void flush() {
+		if (writer == null) {
+			return;
+		}
+
+		try {
+			writer.flush();
+		} catch (IOException e) {
+			System.err.println("Could not flush log file " + file + "!");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Sets when the file is rotated into a new file.
+	 *
+	 * @param maxBytes The size a file can grow to before rotating, -1 for no size limit.
+	 * @param maxSeconds The time a file is written to before rotating, -1 for no time limit.
+	 * @param compress If rotated files are compressed with gzip.
+	 */
+	public synchronized void setRotation(long maxBytes, float maxSeconds, boolean compress) {
+		this.maxBytes = maxBytes;
+		this.maxMillis = maxSeconds < 0.0f ? -1 : (long) (maxSeconds * 1000.0f);
+		this.compress = compress;
+	}
+
+	/**
+	 * Closes the current file and starts a new one.
+	 */
+	public synchronized void rotate() {
+		File rotated = file;
+		close();
+		open();
+
+		if (compress && rotated != null) {
+			Thread thread = new Thread(() -> compress(rotated));
+			thread.setName("logger-compress");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Closes the current file, lines written after this are ignored.
+	 */
+	public synchronized void close() {
+		if (writer == null) {
+			return;
+		}
+
+		try {
+			writer.close();
+		} catch (IOException e) {
+			System.err.println("Could not close log file " + file + "!");
+			e.printStackTrace();
+		}
+
+		writer = null;
+	}
+
+	private void open() {
+		Calendar calendar = Calendar.getInstance();
+		String name = calendar.get(Calendar.HOUR) + "." + calendar.get(Calendar.MINUTE) + "." + (calendar.get(Calendar.SECOND) + 1) + "-" + (calendar.get(Calendar.MONTH) + 1) + "." + calendar.get(Calendar.DAY_OF_MONTH) + "." + calendar.get(Calendar.YEAR);
+		File result = new File(directory, name + ".log");
+
+		for (int i = 1; result.exists() || new File(directory, result.getName() + ".gz").exists(); i++) {
+			result = new File(directory, name + "-" + i + ".log");
+		}
+
+		try {
+			this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(result, false), StandardCharsets.UTF_8), BUFFER_SIZE);
+			this.file = result;
+			this.bytesWritten = 0;
+			this.openedTime = System.currentTimeMillis();
+		} catch (IOException e) {
+			System.err.println("Could not create log file " + result + "!");
+			e.printStackTrace();
+			this.writer = null;
+		}
+	}
+
+	/**
+	 * Gets the number of bytes a string takes in UTF-8, the encoding the file is written in, without encoding it.
+	 *
+	 * @param string The string.
+	 *
+	 * @return The encoded length in bytes.
+	 */
+	private static long utf8Length(String string) {
+		long length = 0;
+
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < string.length() && Character.isLowSurrogate(string.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				// A surrogate without its pair is written as '?'.
+				length++;
+			} else {
+				length += 3;
+			}
+		}
+
+		return length;
+	}
+
+	private static void compress(File source) {
+		File target = new File(source.getPath() + ".gz");
+
+		try (InputStream in = new FileInputStream(source); OutputStream out = new GZIPOutputStream(new FileOutputStream(target))) {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+		} catch (IOException e) {
+			System.err.println("Could not compress log file " + source + "!");
+			e.printStackTrace();
+			return;
+		}
+
+		if (!source.delete()) {
+			System.err.println("Could not remove compressed log file " + source + "!");
+		}
+	}
+
+	/**
+	 * Gets the file currently being written to.
+	 *
+	 * @return The current log file.
+	 */
+	public synchronized File getFile() {
+		return file;
+	}
+}
@@ -28,6 +28,9 @@ public class LoggerFrame extends JFrame {
 
 		JTextArea display = new JTextArea();
 
+		// Queued logs are written first, as this is shown after a crash.
+		FlounderLogger.get().flush();
+
 		for (String data : FlounderLogger.get().getSaveData()) {
 			display.append(data + "\n");
 		}
@@ -0,0 +1,194 @@
+package flounder.logger;
+
+import java.util.*;
+
+/**
+ * Limits how often the same message can be logged. Messages are keyed by their formatted text, so only messages that read the same share a limit.
+ * Once a key has been logged the maximum times in a interval further messages are suppressed and counted, and a summary is created when the interval ends. Keys are kept in a least recently used table of a fixed size.
+ */
+public class LoggerLimiter {
+	private final int capacity;
+	private final int limit;
+	private final long intervalNanos;
+	private final LinkedHashMap<String, Key> entries;
+	private final List<Summary> pending;
+
+	/**
+	 * Creates a new limiter.
+	 *
+	 * @param capacity The most keys tracked at once, the least recently used key is dropped past this.
+	 * @param limit The times a key can be logged in each interval.
+	 * @param interval The length of a interval, in seconds.
+	 */
+	public LoggerLimiter(int capacity, int limit, float interval) {
+		this.capacity = capacity;
+		this.limit = limit;
+		this.intervalNanos = (long) (interval * 1000000000.0);
+		this.entries = new LinkedHashMap<String, Key>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Key> eldest) {
+				if (size() <= LoggerLimiter.this.capacity) {
+					return false;
+				}
+
+				eldest.getValue().summarize(pending);
+				return true;
+			}
+		};
+		this.pending = new ArrayList<>();
+	}
+
+	/**
+	 * Counts a message against its key's limit.
+	 *
+	 * @param message The formatted message, this is the key it is counted against.
+	 * @param level The level of the message.
+	 *
+	 * @return If the message should be logged, false if it was suppressed.
+	 */
+	public synchronized boolean allow(String message, LogLevel level) {
+		long now = System.nanoTime();
+		Key entry = entries.get(message);
+
+		if (entry == null) {
+			entry = new Key(message, now);
+			entries.put(message, entry);
+		} else if (now - entry.windowStart >= intervalNanos) {
+			entry.summarize(pending);
+			entry.windowStart = now;
+			entry.emitted = 0;
+		}
+
+		if (entry.emitted < limit) {
+			entry.emitted++;
+			return true;
+		}
+
+		// The level of the latest suppressed message is used for the summary.
+		entry.suppressed++;
+		entry.level = level;
+		return false;
+	}
+
+	/**
+	 * Ends every interval that has passed and takes the summaries waiting to be logged.
+	 *
+	 * @param expire If intervals that have passed are ended, otherwise only summaries already waiting are taken.
+	 *
+	 * @return The summaries to log, empty if there are none.
+	 */
+	public synchronized List<Summary> drain(boolean expire) {
+		if (expire) {
+			long now = System.nanoTime();
+
+			for (Key entry : entries.values()) {
+				if (entry.suppressed > 0 && now - entry.windowStart >= intervalNanos) {
+					entry.summarize(pending);
+					entry.windowStart = now;
+					entry.emitted = 0;
+				}
+			}
+		}
+
+		if (pending.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		List<Summary> result = new ArrayList<>(pending);
+		pending.clear();
+		return result;
+	}
+
+	/**
+	 * Gets if summaries are waiting to be logged.
+	 *
+	 * @return If there are summaries waiting.
+	 */
+	public synchronized boolean hasPending() {
+		return !pending.isEmpty();
+	}
+
+	/**
+	 * Gets the times a key can be logged in each interval.
+	 *
+	 * @return The limit per interval.
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Gets the length of a interval.
+	 *
+	 * @return The interval in seconds.
+	 */
+	public float getInterval() {
+		return intervalNanos / 1000000000.0f;
+	}
+
+	/**
+	 * The state of a key in the current interval.
+	 */
+	private static class Key {
+		private final String message;
+		private long windowStart;
+		private int emitted;
+		private int suppressed;
+		private LogLevel level;
+
+		private Key(String message, long windowStart) {
+			this.message = message;
+			this.windowStart = windowStart;
+		}
+
+		private void summarize(List<Summary> pending) {
+			if (suppressed > 0) {
+				pending.add(new Summary(level, message, suppressed));
+			}
+
+			suppressed = 0;
+		}
+	}
+
+	/**
+	 * A message that had repeats suppressed and how many were suppressed.
+	 */
+	public static class Summary {
+		private final LogLevel level;
+		private final String message;
+		private final int repeated;
+
+		private Summary(LogLevel level, String message, int repeated) {
+			this.level = level;
+			this.message = message;
+			this.repeated = repeated;
+		}
+
+		/**
+		 * Gets the level of the last suppressed message.
+		 *
+		 * @return The level.
+		 */
+		public LogLevel getLevel() {
+			return level;
+		}
+
+		/**
+		 * Gets the formatted message that was suppressed.
+		 *
+		 * @return The message.
+		 */
+		public String getMessage() {
+			return message;
+		}
+
+		/**
+		 * Gets how many messages were suppressed.
+		 *
+		 * @return The number of suppressed messages.
+		 */
+		public int getRepeated() {
+			return repeated;
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package flounder.logger;
+
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * A preallocated ring buffer that any thread can write log records into, and that a background thread drains and writes out.
+ * Writers claim a slot with a compare and set and never lock, so logging from hot paths only costs copying the records fields.
+ * Closing sets a bit in the same word slots are claimed from, so a record is either claimed before the ring closed and written out, or refused and left to the caller.
+ */
+public class LoggerRing {
+	/**
+	 * What writers do when the ring is full.
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * The writer waits until the background thread has made space.
+		 */
+		BLOCK,
+		/**
+		 * The record is dropped silently, drops are still counted in {@link #getDropped()}.
+		 */
+		DROP,
+		/**
+		 * The record is dropped, and the number of dropped records is logged once the ring has space again.
+		 */
+		COUNT
+	}
+
+	private static final long IDLE_NANOS = 1000000L;
+
+	/**
+	 * Set in the head once the ring is closed, no slot can be claimed after it is set.
+	 */
+	private static final long CLOSED = 1L << 62;
+
+	private final Record[] records;
+	private final int mask;
+	private final AtomicLongArray published;
+	private final AtomicLong head;
+	private final AtomicLong tail;
+	private final AtomicLong dropped;
+	private final OverflowPolicy policy;
+	private final Output output;
+
+	private long reported;
+	private Thread thread;
+
+	/**
+	 * Creates a new ring and starts its background writer.
+	 *
+	 * @param capacity The number of records the ring holds, rounded up to a power of two.
+	 * @param policy What writers do when the ring is full.
+	 * @param output Where records are written to from the background thread.
+	 */
+	public LoggerRing(int capacity, OverflowPolicy policy, Output output) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		this.records = new Record[size];
+		this.mask = size - 1;
+		this.published = new AtomicLongArray(size);
+		this.head = new AtomicLong(0);
+		this.tail = new AtomicLong(0);
+		this.dropped = new AtomicLong(0);
+		this.policy = policy;
+		this.output = output;
+
+		for (int i = 0; i < size; i++) {
+			records[i] = new Record();
+			published.set(i, -1);
+		}
+
+		this.reported = 0;
+		this.thread = new Thread(this::run);
+		thread.setName("logger");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Writes a record into the ring.
+	 *
+	 * @param level The level of the record.
+	 * @param message The message of the record.
+	 * @param exception The exception of the record, can be null.
+	 *
+	 * @return If the ring handled the record, by adding or dropping it. False if the ring is closed or this is the background thread, and the caller should write the record itself.
+	 */
+	public boolean write(LogLevel level, String message, Throwable exception) {
+		if (Thread.currentThread() == thread) {
+			return false;
+		}
+
+		long sequence;
+
+		while (true) {
+			sequence = head.get();
+
+			if ((sequence & CLOSED) != 0) {
+				return false;
+			}
+
+			if (sequence - tail.get() >= records.length) {
+				if (policy != OverflowPolicy.BLOCK || !thread.isAlive()) {
+					dropped.incrementAndGet();
+					return true;
+				}
+
+				LockSupport.parkNanos(IDLE_NANOS / 10);
+				continue;
+			}
+
+			if (head.compareAndSet(sequence, sequence + 1)) {
+				break;
+			}
+		}
+
+		int index = (int) (sequence & mask);
+		Record record = records[index];
+		record.time = System.currentTimeMillis();
+		record.level = level;
+		record.message = message;
+		record.exception = exception;
+		published.lazySet(index, sequence);
+		return true;
+	}
+
+	private void run() {
+		while (true) {
+			long sequence = tail.get();
+			int index = (int) (sequence & mask);
+
+			if (published.get(index) != sequence) {
+				if (policy == OverflowPolicy.COUNT && dropped.get() > reported) {
+					long count = dropped.get();
+					output.write(System.currentTimeMillis(), LogLevel.WARNING, "Logger ring was full, " + (count - reported) + " records were dropped!", null);
+					reported = count;
+				}
+
+				// Once closed, records claimed before closing are still waited for, as their writers are part way through copying them.
+				long current = head.get();
+
+				if ((current & CLOSED) != 0 && sequence >= (current & ~CLOSED)) {
+					break;
+				}
+
+				LockSupport.parkNanos(IDLE_NANOS);
+				continue;
+			}
+
+			Record record = records[index];
+
+			try {
+				output.write(record.time, record.level, record.message, record.exception);
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+
+			record.message = null;
+			record.exception = null;
+			tail.set(sequence + 1);
+		}
+	}
+
+	/**
+	 * Blocks until every record written before this call has been written out, or the timeout passes.
+	 *
+	 * @param timeoutMillis The longest time to wait, in milliseconds.
+	 */
+	public void flush(long timeoutMillis) {
+		if (Thread.currentThread() == thread) {
+			return;
+		}
+
+		long target = head.get() & ~CLOSED;
+		long end = System.nanoTime() + timeoutMillis * 1000000L;
+
+		while (tail.get() < target && thread.isAlive() && System.nanoTime() < end) {
+			LockSupport.parkNanos(IDLE_NANOS / 10);
+		}
+	}
+
+	/**
+	 * Writes out every remaining record and stops the background thread. Writes after this return false.
+	 *
+	 * @param timeoutMillis The longest time to wait, in milliseconds.
+	 */
+	public void close(long timeoutMillis) {
+		flush(timeoutMillis);
+		head.getAndUpdate(current -> current | CLOSED);
+
+		try {
+			thread.join(timeoutMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Gets the number of records dropped because the ring was full.
+	 *
+	 * @return The number of dropped records.
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Gets what writers do when the ring is full.
+	 *
+	 * @return The overflow policy.
+	 */
+	public OverflowPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * A preallocated slot in the ring.
+	 */
+	private static class Record {
+		private long time;
+		private LogLevel level;
+		private String message;
+		private Throwable exception;
+	}
+
+	/**
+	 * Where the background thread writes records to.
+	 */
+	@FunctionalInterface
+	public interface Output {
+		/**
+		 * Writes a record out.
+		 *
+		 * @param time The time the record was written, in milliseconds since the epoch.
+		 * @param level The level of the record.
+		 * @param message The message of the record.
+		 * @param exception The exception of the record, can be null.
+		 */
+		void write(long time, LogLevel level, String message, Throwable exception);
+	}
+}
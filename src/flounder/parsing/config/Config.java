@@ -1,18 +1,32 @@
 package flounder.parsing.config;
 
+import flounder.events.*;
 import flounder.helpers.*;
 import flounder.logger.*;
+import flounder.processing.*;
+import flounder.processing.resource.*;
 import flounder.resources.*;
 
 import java.io.*;
+import java.nio.file.*;
 import java.util.*;
 
 /**
  * A class used for loading and parsing a configuration file.
  */
 public class Config {
-	private Map<ConfigSection, List<ConfigData>> dataMap;
+	private static final float SAVE_DELAY = 1.0f;
+
+	private Map<ConfigSection, Map<String, ConfigData>> dataMap;
 	private MyFile file;
+	private volatile Map<ConfigSection, Map<String, String>> lastWritten;
+	private volatile long lastWrittenModified;
+	private volatile Map<ConfigSection, Map<String, String>> lastSaved;
+	private TimingWheel.Timeout pendingSave;
+	private long saveVersion;
+	private final Object writeLock;
+	private long writtenVersion;
+	private ConfigWatcher watcher;
 
 	/**
 	 * Loads and parses a configuration file.
@@ -20,19 +34,38 @@ public class Config {
 	 * @param file The path to the configuration file.
 	 */
 	public Config(MyFile file) {
-		this.dataMap = new HashMap<>();
+		this.dataMap = new EnumMap<>(ConfigSection.class);
 
 		for (ConfigSection section : ConfigSection.values()) {
-			this.dataMap.put(section, new ArrayList<>());
+			this.dataMap.put(section, new HashMap<>());
 		}
 
 		this.file = file;
+		this.writeLock = new Object();
 
 		load();
 	}
 
 	private void load() {
-		File saveFile = insureFile();
+		Map<ConfigSection, Map<String, String>> parsed = parse(insureFile());
+
+		for (Map.Entry<ConfigSection, Map<String, String>> section : parsed.entrySet()) {
+			for (Map.Entry<String, String> entry : section.getValue().entrySet()) {
+				ConfigData configData = new ConfigData(entry.getKey(), entry.getValue(), null);
+				this.dataMap.get(section.getKey()).putIfAbsent(configData.key, configData);
+			}
+		}
+	}
+
+	/**
+	 * Reads the keys and data from a config file.
+	 *
+	 * @param saveFile The file to read.
+	 *
+	 * @return The data of each key in each section, the first value is used for keys that are repeated.
+	 */
+	private static Map<ConfigSection, Map<String, String>> parse(File saveFile) {
+		Map<ConfigSection, Map<String, String>> result = new EnumMap<>(ConfigSection.class);
 
 		try (BufferedReader br = new BufferedReader(new FileReader(saveFile))) {
 			String line;
@@ -51,15 +84,118 @@ public class Config {
 							currentSection = s;
 						}
 					}
-				} else if (line.startsWith("$")) {
+				} else if (line.startsWith("$") && currentSection != null) {
 					String key = line.substring(1, line.length()).split(":")[0].trim();
 					String data = line.split(":")[1].trim();
-					this.dataMap.get(currentSection).add(new ConfigData(key, data, null));
+					result.computeIfAbsent(currentSection, s -> new LinkedHashMap<>()).putIfAbsent(key, data);
 				}
 			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+
+		return result;
+	}
+
+	/**
+	 * Reads the config file again, the keys whose data differs from the data in the config are changed on the main thread.
+	 * This is called from the watcher thread.
+	 */
+	protected void reload() {
+		File saveFile = insureFile();
+		long modified = saveFile.lastModified();
+		Map<ConfigSection, Map<String, String>> parsed = parse(saveFile);
+
+		// The config's own saves are not seen as changes, the data in the config may have changed again since it was written.
+		if (modified == lastWrittenModified && parsed.equals(lastWritten)) {
+			return;
+		}
+
+		// The config is only read and changed on the main thread, so the changes are found and applied there as a one-shot event.
+		FlounderEvents.get().addEvent(new EventStandard(false) {
+			@Override
+			public boolean eventTriggered() {
+				return true;
+			}
+
+			@Override
+			public void onEvent() {
+				int changed = apply(parsed);
+
+				if (changed > 0) {
+					FlounderLogger.get().log("Config {} reloaded, {} values changed.", file.getName(), changed);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Applies data read from the config file, changing the keys whose data differs from the data in the config and telling their listeners.
+	 *
+	 * @param parsed The data of each key in each section.
+	 *
+	 * @return The number of keys that changed.
+	 */
+	private int apply(Map<ConfigSection, Map<String, String>> parsed) {
+		int changed = 0;
+
+		for (Map.Entry<ConfigSection, Map<String, String>> section : parsed.entrySet()) {
+			Map<String, ConfigData> sectionData = dataMap.get(section.getKey());
+
+			for (Map.Entry<String, String> entry : section.getValue().entrySet()) {
+				ConfigData data = sectionData.get(entry.getKey());
+
+				if (data == null) {
+					data = new ConfigData(entry.getKey(), entry.getValue(), null);
+					sectionData.put(data.key, data);
+					changed++;
+				} else if (!entry.getValue().equals(data.data)) {
+					data.setData(entry.getValue());
+					changed++;
+				}
+			}
+		}
+
+		return changed;
+	}
+
+	/**
+	 * Sets if the config file is watched and reloaded when it changes. Changed values are applied on the main thread, and listeners added with {@link ConfigData#addListener(ConfigListener)} are told about them.
+	 * This requires the {@link FlounderEvents} module.
+	 *
+	 * @param hotReload If the config is hot reloaded.
+	 */
+	public void setHotReload(boolean hotReload) {
+		if (hotReload == (watcher != null)) {
+			return;
+		}
+
+		if (!hotReload) {
+			watcher.stop();
+			watcher = null;
+			return;
+		}
+
+		if (FlounderEvents.get() == null) {
+			FlounderLogger.get().error("Config {} can not be hot reloaded without the events module!", file.getName());
+			return;
+		}
+
+		try {
+			watcher = new ConfigWatcher(this, insureFile());
+		} catch (IOException e) {
+			FlounderLogger.get().error("Config {} could not be watched for changes!", file.getName());
+			FlounderLogger.get().exception(e);
+		}
+	}
+
+	/**
+	 * Gets if the config file is watched and reloaded when it changes.
+	 *
+	 * @return If the config is hot reloaded.
+	 */
+	public boolean isHotReload() {
+		return watcher != null;
 	}
 
 	/**
@@ -88,50 +224,177 @@ public class Config {
 	 * @return The data loaded from the config.
 	 */
 	public <T> ConfigData getData(ConfigSection section, String key, T defaultData, ConfigReference reference) {
-		for (ConfigData data : dataMap.get(section)) {
-			if (data.key.equals(key)) {
-				if (data.reference == null) {
-					data.reference = reference;
-				}
+		Map<String, ConfigData> sectionData = dataMap.get(section);
+		ConfigData data = sectionData.get(key);
 
-				// The data loaded.
-				return data;
+		if (data != null) {
+			if (data.reference == null) {
+				data.reference = reference;
 			}
+
+			// The data loaded.
+			return data;
 		}
 
 		ConfigData configData = new ConfigData(key, defaultData.toString(), reference);
-		dataMap.get(section).add(configData);
+		sectionData.put(configData.key, configData);
 		return configData;
 	}
 
 	/**
-	 * Saves the config, data references are used to find new up to data data.
+	 * Saves the config straight away, data references are used to find new up to data data. Nothing is written if no data changed since the last save.
 	 */
 	public void save() {
-		try {
-			File saveFile = insureFile();
+		if (pendingSave != null) {
+			pendingSave.cancel();
+			pendingSave = null;
+		}
+
+		Map<ConfigSection, Map<String, String>> snapshot = snapshot(true);
+
+		if (!snapshot.equals(lastSaved)) {
+			this.lastSaved = snapshot;
+			write(snapshot, ++saveVersion);
+		}
+	}
+
+	/**
+	 * Saves the config in the background. Saves requested within a second of each other are joined into one, and nothing is written if no data changed since the last save.
+	 * The data is read on the main thread, then written on the resource thread. Call {@link #save()} when closing to write straight away.
+	 */
+	public void saveAsync() {
+		if (pendingSave != null) {
+			pendingSave.cancel();
+			pendingSave = null;
+		}
+
+		FlounderEvents events = FlounderEvents.get();
+
+		if (events == null) {
+			saveBackground();
+			return;
+		}
+
+		pendingSave = events.schedule(SAVE_DELAY, () -> {
+			pendingSave = null;
+			saveBackground();
+		});
+	}
 
-			FileWriter fileWriter = new FileWriter(saveFile);
-			FileWriterHelper fileWriterHelper = new FileWriterHelper(fileWriter);
+	private void saveBackground() {
+		Map<ConfigSection, Map<String, String>> snapshot = snapshot(true);
 
-			for (ConfigSection section : dataMap.keySet()) {
-				if (!dataMap.get(section).isEmpty()) {
-					fileWriterHelper.beginNewSegment("#" + section.name() + ":", false);
+		if (snapshot.equals(lastSaved)) {
+			return;
+		}
+
+		this.lastSaved = snapshot;
+		long version = ++saveVersion;
+		FlounderProcessors processors = FlounderProcessors.get();
+
+		if (processors == null) {
+			write(snapshot, version);
+		} else {
+			processors.sendRequest((RequestResource) () -> write(snapshot, version));
+		}
+	}
+
+	/**
+	 * Gets if any data has changed since the config was last saved, including changes to data references.
+	 *
+	 * @return If the config needs saving.
+	 */
+	public boolean isDirty() {
+		return !snapshot(false).equals(lastSaved);
+	}
+
+	/**
+	 * Reads the current data to be saved, data references are used to find up to date data.
+	 *
+	 * @param update If the config data is set to the readings of its references, telling their listeners. This is false for queries that should not change anything.
+	 *
+	 * @return The data of each key in each non empty section, sorted by key.
+	 */
+	private Map<ConfigSection, Map<String, String>> snapshot(boolean update) {
+		Map<ConfigSection, Map<String, String>> result = new EnumMap<>(ConfigSection.class);
 
-					for (ConfigData data : ArraySorting.insertionSort(dataMap.get(section))) {
-						String save = (data.reference == null || data.reference.getReading() == null) ? data.data : data.reference.getReading().toString();
-						data.data = save;
-						fileWriterHelper.writeSegmentData("$" + data.key + ": " + save, true);
+		for (Map.Entry<ConfigSection, Map<String, ConfigData>> section : dataMap.entrySet()) {
+			if (section.getValue().isEmpty()) {
+				continue;
+			}
+
+			Map<String, String> sorted = new TreeMap<>();
+
+			for (ConfigData data : section.getValue().values()) {
+				Object reading = data.reference == null ? null : data.reference.getReading();
+				String value = reading == null ? data.data : reading.toString();
+
+				if (update) {
+					data.setData(value);
+				}
+
+				sorted.put(data.key, value);
+			}
+
+			result.put(section.getKey(), sorted);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Writes data to a temporary file, syncs it to disk and then moves it over the config file, so the config file is never left half written.
+	 * This can be called from any thread, writes are made one at a time and a write older than the last written one is skipped.
+	 *
+	 * @param snapshot The data to write.
+	 * @param version The save this data is from, later saves have higher versions.
+	 */
+	private void write(Map<ConfigSection, Map<String, String>> snapshot, long version) {
+		synchronized (writeLock) {
+			if (version <= writtenVersion) {
+				return;
+			}
+
+			writeFile(snapshot);
+			writtenVersion = version;
+		}
+	}
+
+	private void writeFile(Map<ConfigSection, Map<String, String>> snapshot) {
+		File saveFile = insureFile();
+		File tempFile = new File(saveFile.getPath() + ".tmp");
+
+		try {
+			try (FileOutputStream stream = new FileOutputStream(tempFile); FileWriter fileWriter = new FileWriter(stream.getFD())) {
+				FileWriterHelper fileWriterHelper = new FileWriterHelper(fileWriter);
+
+				for (Map.Entry<ConfigSection, Map<String, String>> section : snapshot.entrySet()) {
+					fileWriterHelper.beginNewSegment("#" + section.getKey().name() + ":", false);
+
+					for (Map.Entry<String, String> data : section.getValue().entrySet()) {
+						fileWriterHelper.writeSegmentData("$" + data.getKey() + ": " + data.getValue(), true);
 					}
 
 					fileWriterHelper.endSegment(true, false);
 				}
+
+				// The data must be on disk before the move, or a crash can leave a empty config in place of the old one.
+				fileWriter.flush();
+				stream.getFD().sync();
+			}
+
+			try {
+				Files.move(tempFile.toPath(), saveFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile.toPath(), saveFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
 			}
 
-			// Closes the file for writing.
-			fileWriter.close();
+			// The watcher compares reloads to this, so the config's own saves are not seen as changes.
+			this.lastWrittenModified = saveFile.lastModified();
+			this.lastWritten = snapshot;
 		} catch (IOException e) {
-			FlounderLogger.get().error("File saver for config " + file.getName() + " did not save successfully!");
+			this.lastSaved = null;
+			FlounderLogger.get().error("File saver for config {} did not save successfully!", file.getName());
 			FlounderLogger.get().exception(e);
 		}
 	}
@@ -1,23 +1,48 @@
 package flounder.parsing.config;
 
+import java.util.*;
+
 /**
- * Config data that has been loaded from data or a config.
+ * Config data that has been loaded from data or a config. Parsed values are cached on first read, so this can be kept and read every frame without any lookup.
  */
 public class ConfigData implements Comparable<ConfigData> {
+	private static final int PARSED_BOOLEAN = 1;
+	private static final int PARSED_INTEGER = 2;
+	private static final int PARSED_DOUBLE = 4;
+	private static final int PARSED_FLOAT = 8;
+
 	protected String key;
 	protected String data;
 	protected ConfigReference reference;
 
+	private int parsed;
+	private boolean booleanValue;
+	private int integerValue;
+	private double doubleValue;
+	private float floatValue;
+
+	private List<ConfigListener> listeners;
+
 	protected ConfigData(String key, String data, ConfigReference reference) {
 		this.key = fixDataString(key);
 		this.data = fixDataString(data);
 		this.reference = reference;
+		this.parsed = 0;
 	}
 
 	private String fixDataString(String string) {
 		return string.replace("#", "").replace("$", "").replace(",", "").replace(";", "").replace("{", "").replace("}", "");
 	}
 
+	/**
+	 * Gets the key this data is stored under.
+	 *
+	 * @return The key.
+	 */
+	public String getKey() {
+		return key;
+	}
+
 	/**
 	 * Gets the parsed data (String).
 	 *
@@ -33,7 +58,12 @@ public class ConfigData implements Comparable<ConfigData> {
 	 * @return The parsed data.
 	 */
 	public boolean getBoolean() {
-		return Boolean.parseBoolean(data);
+		if ((parsed & PARSED_BOOLEAN) == 0) {
+			booleanValue = Boolean.parseBoolean(data);
+			parsed |= PARSED_BOOLEAN;
+		}
+
+		return booleanValue;
 	}
 
 	/**
@@ -42,7 +72,12 @@ public class ConfigData implements Comparable<ConfigData> {
 	 * @return The parsed data.
 	 */
 	public int getInteger() {
-		return Integer.parseInt(data);
+		if ((parsed & PARSED_INTEGER) == 0) {
+			integerValue = Integer.parseInt(data);
+			parsed |= PARSED_INTEGER;
+		}
+
+		return integerValue;
 	}
 
 	/**
@@ -51,7 +86,12 @@ public class ConfigData implements Comparable<ConfigData> {
 	 * @return The parsed data.
 	 */
 	public double getDouble() {
-		return Double.parseDouble(data);
+		if ((parsed & PARSED_DOUBLE) == 0) {
+			doubleValue = Double.parseDouble(data);
+			parsed |= PARSED_DOUBLE;
+		}
+
+		return doubleValue;
 	}
 
 	/**
@@ -60,7 +100,64 @@ public class ConfigData implements Comparable<ConfigData> {
 	 * @return The parsed data.
 	 */
 	public float getFloat() {
-		return Float.parseFloat(data);
+		if ((parsed & PARSED_FLOAT) == 0) {
+			floatValue = Float.parseFloat(data);
+			parsed |= PARSED_FLOAT;
+		}
+
+		return floatValue;
+	}
+
+	/**
+	 * Sets the data, clearing any cached parsed values and telling listeners if it changed.
+	 *
+	 * @param data The new data.
+	 *
+	 * @return this.
+	 */
+	public ConfigData setData(String data) {
+		String fixed = fixDataString(data);
+
+		if (!fixed.equals(this.data)) {
+			String previous = this.data;
+			this.data = fixed;
+			this.parsed = 0;
+
+			if (listeners != null) {
+				for (ConfigListener listener : new ArrayList<>(listeners)) {
+					listener.onChange(this, previous);
+				}
+			}
+		}
+
+		return this;
+	}
+
+	/**
+	 * Adds a listener that is told when this data changes, such as when the config file is hot reloaded.
+	 *
+	 * @param listener The listener to add.
+	 *
+	 * @return this.
+	 */
+	public ConfigData addListener(ConfigListener listener) {
+		if (listeners == null) {
+			listeners = new ArrayList<>();
+		}
+
+		listeners.add(listener);
+		return this;
+	}
+
+	/**
+	 * Removes a listener from this data.
+	 *
+	 * @param listener The listener to remove.
+	 */
+	public void removeListener(ConfigListener listener) {
+		if (listeners != null) {
+			listeners.remove(listener);
+		}
 	}
 
 	/**
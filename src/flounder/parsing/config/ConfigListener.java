@@ -0,0 +1,15 @@
+package flounder.parsing.config;
+
+/**
+ * A listener that is told when a config value changes.
+ */
+@FunctionalInterface
+public interface ConfigListener {
+	/**
+	 * Run on the main thread when the data has changed.
+	 *
+	 * @param data The data that changed.
+	 * @param previous The data before the change.
+	 */
+	void onChange(ConfigData data, String previous);
+}
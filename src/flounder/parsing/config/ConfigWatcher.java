@@ -0,0 +1,107 @@
+package flounder.parsing.config;
+
+import flounder.logger.*;
+
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Watches a config file on a background thread, and reloads the config whenever the file is changed.
+ */
+public class ConfigWatcher {
+	private static final long SETTLE_MILLIS = 100;
+
+	private Config config;
+	private Path path;
+	private WatchService service;
+	private Thread thread;
+	private volatile boolean running;
+
+	/**
+	 * Creates a new watcher and starts its thread.
+	 *
+	 * @param config The config to reload.
+	 * @param file The file the config is loaded from.
+	 *
+	 * @throws IOException If the file's folder could not be watched.
+	 */
+	protected ConfigWatcher(Config config, File file) throws IOException {
+		this.config = config;
+		this.path = file.getAbsoluteFile().toPath();
+		this.service = path.getFileSystem().newWatchService();
+		this.running = true;
+
+		path.getParent().register(service, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+
+		this.thread = new Thread(this::run);
+		thread.setName("config-watcher-" + path.getFileName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void run() {
+		while (running) {
+			WatchKey key;
+
+			try {
+				key = service.take();
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				break;
+			}
+
+			boolean changed = false;
+
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (path.getFileName().equals(event.context())) {
+					changed = true;
+				}
+			}
+
+			key.reset();
+
+			if (!changed) {
+				continue;
+			}
+
+			try {
+				// Editors often write a file in a few steps, so the file is given time to settle before being read.
+				Thread.sleep(SETTLE_MILLIS);
+			} catch (InterruptedException e) {
+				break;
+			}
+
+			try {
+				WatchKey extra;
+
+				while ((extra = service.poll()) != null) {
+					extra.pollEvents();
+					extra.reset();
+				}
+			} catch (ClosedWatchServiceException e) {
+				break;
+			}
+
+			try {
+				config.reload();
+			} catch (RuntimeException e) {
+				FlounderLogger.get().error("Config {} could not be reloaded!", path.getFileName());
+				FlounderLogger.get().exception(e);
+			}
+		}
+	}
+
+	/**
+	 * Stops watching the file.
+	 */
+	public void stop() {
+		running = false;
+
+		try {
+			service.close();
+		} catch (IOException e) {
+			FlounderLogger.get().exception(e);
+		}
+
+		thread.interrupt();
+	}
+}
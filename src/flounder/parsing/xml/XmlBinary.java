@@ -0,0 +1,410 @@
+package flounder.parsing.xml;
+
+import flounder.resources.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.stream.*;
+
+/**
+ * A compiled binary form of {@link XmlNode} trees, that is loaded without parsing any text.
+ * A file holds a string table of every name, value and data string used, followed by a node table of ints that reference the string table, with nodes stored depth first.
+ * Usage: {@code XmlBinary [folder] [-force]} compiles every XML file below a folder (res by default) in parallel, writing each next to its source with the {@link #EXTENSION} extension.
+ */
+public class XmlBinary {
+	public static final int MAGIC = 0x46584D42; // "FXMB"
+	public static final int VERSION = 1;
+	public static final String EXTENSION = ".xmlb";
+
+	private static final int NONE = -1;
+
+	/**
+	 * Writes a tree of nodes in the binary form.
+	 *
+	 * @param root The root node to write.
+	 * @param output The stream to write to, this is not closed.
+	 *
+	 * @throws IOException If the stream could not be written to.
+	 */
+	public static void write(XmlNode root, OutputStream output) throws IOException {
+		Map<String, Integer> stringIds = new HashMap<>();
+		List<String> strings = new ArrayList<>();
+		int[] table = new int[256];
+		int length = 0;
+		int nodes = 0;
+
+		Deque<XmlNode> open = new ArrayDeque<>();
+		open.push(root);
+
+		while (!open.isEmpty()) {
+			XmlNode node = open.pop();
+			int attributes = node.getAttributeCount();
+			int children = node.getChildCount();
+
+			if (length + 4 + attributes * 2 > table.length) {
+				table = Arrays.copyOf(table, Math.max(table.length * 2, length + 4 + attributes * 2));
+			}
+
+			table[length++] = stringId(node.getName(), stringIds, strings);
+			table[length++] = stringId(node.getData(), stringIds, strings);
+			table[length++] = attributes;
+			table[length++] = children;
+
+			for (int i = 0; i < attributes; i++) {
+				table[length++] = stringId(node.getAttributeName(i), stringIds, strings);
+				table[length++] = stringId(node.getAttributeValue(i), stringIds, strings);
+			}
+
+			// Pushed in reverse so children are popped, and written, in order.
+			for (int i = children - 1; i >= 0; i--) {
+				open.push(node.getChild(i));
+			}
+
+			nodes++;
+		}
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(strings.size());
+
+		for (String string : strings) {
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+
+		out.writeInt(nodes);
+		out.writeInt(length);
+
+		for (int i = 0; i < length; i++) {
+			out.writeInt(table[i]);
+		}
+
+		out.flush();
+	}
+
+	private static int stringId(String string, Map<String, Integer> stringIds, List<String> strings) {
+		if (string == null) {
+			return NONE;
+		}
+
+		Integer id = stringIds.get(string);
+
+		if (id == null) {
+			id = strings.size();
+			stringIds.put(string, id);
+			strings.add(string);
+		}
+
+		return id;
+	}
+
+	/**
+	 * Reads a tree of nodes from the binary form.
+	 *
+	 * @param input The stream to read from, this is not closed.
+	 *
+	 * @return The root node.
+	 *
+	 * @throws IOException If the stream could not be read or is not a compiled XML file.
+	 */
+	public static XmlNode read(InputStream input) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(readFully(input));
+
+		try {
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException("Not a compiled XML file!");
+			}
+
+			int version = buffer.getInt();
+
+			if (version != VERSION) {
+				throw new IOException("Unsupported compiled XML version " + version + "!");
+			}
+
+			// Each string takes at least its length, so a count larger than that is corrupt and is not allocated.
+			String[] strings = new String[count(buffer.getInt(), buffer.remaining() / 4, "string")];
+			byte[] bytes = buffer.array();
+
+			for (int i = 0; i < strings.length; i++) {
+				int size = count(buffer.getInt(), buffer.remaining(), "string byte");
+				strings[i] = new String(bytes, buffer.position(), size, StandardCharsets.UTF_8);
+				buffer.position(buffer.position() + size);
+			}
+
+			int nodes = buffer.getInt();
+			int length = count(buffer.getInt(), buffer.remaining() / 4, "table");
+			IntBuffer table = buffer.asIntBuffer();
+
+			// Each node takes at least four ints of the table.
+			count(nodes, length / 4, "node");
+
+			// Each open node and how many of its children are still to be read.
+			XmlNode[] open = new XmlNode[16];
+			int[] remaining = new int[16];
+			int depth = 0;
+			XmlNode root = null;
+
+			for (int n = 0; n < nodes; n++) {
+				XmlNode node = new XmlNode(string(strings, table.get()));
+				node.setData(string(strings, table.get()));
+				int attributes = count(table.get(), table.remaining() / 2, "attribute");
+				int children = count(table.get(), nodes - n - 1, "child");
+
+				for (int i = 0; i < attributes; i++) {
+					node.addAttribute(string(strings, table.get()), string(strings, table.get()));
+				}
+
+				if (depth == 0) {
+					if (root != null) {
+						throw new IOException("Compiled XML file has more than one root node!");
+					}
+
+					root = node;
+				} else {
+					open[depth - 1].addChild(node);
+					remaining[depth - 1]--;
+				}
+
+				if (children > 0) {
+					node.reserveChildren(children);
+
+					if (depth == open.length) {
+						open = Arrays.copyOf(open, depth * 2);
+						remaining = Arrays.copyOf(remaining, depth * 2);
+					}
+
+					open[depth] = node;
+					remaining[depth] = children;
+					depth++;
+				}
+
+				while (depth > 0 && remaining[depth - 1] == 0) {
+					depth--;
+				}
+			}
+
+			return root;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IOException("Compiled XML file is truncated or corrupt!", e);
+		}
+	}
+
+	/**
+	 * Checks a count read from a compiled file is not negative and not more than the rest of the file can hold.
+	 *
+	 * @param count The count that was read.
+	 * @param max The most the rest of the file can hold.
+	 * @param what What is being counted, used in the error.
+	 *
+	 * @return The count.
+	 *
+	 * @throws IOException If the count is out of range.
+	 */
+	private static int count(int count, int max, String what) throws IOException {
+		if (count < 0 || count > max) {
+			throw new IOException("Compiled XML file is truncated or corrupt, " + what + " count " + count + " is out of range!");
+		}
+
+		return count;
+	}
+
+	private static String string(String[] strings, int id) {
+		return id == NONE ? null : strings[id];
+	}
+
+	private static byte[] readFully(InputStream input) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream(8192);
+		byte[] buffer = new byte[8192];
+		int read;
+
+		while ((read = input.read(buffer)) != -1) {
+			output.write(buffer, 0, read);
+		}
+
+		return output.toByteArray();
+	}
+
+	/**
+	 * Gets the path of the compiled form of a XML file.
+	 *
+	 * @param path The path of the XML file.
+	 *
+	 * @return The path of the compiled file.
+	 */
+	public static String getCompiledPath(String path) {
+		return (path.endsWith(".xml") ? path.substring(0, path.length() - 4) : path) + EXTENSION;
+	}
+
+	/**
+	 * Opens the compiled form of a XML file, if it exists and is not older than the source file.
+	 * Files are found in the {@link VirtualFileSystem}, then on the class path, then relative to the working directory.
+	 *
+	 * @param file The XML file.
+	 *
+	 * @return A input stream to the compiled file, or null if the text file should be parsed.
+	 *
+	 * @throws IOException If the compiled file exists but could not be opened.
+	 */
+	public static InputStream openCompiled(MyFile file) throws IOException {
+		String compiledPath = getCompiledPath(file.getPath());
+		MountEntry compiledEntry = VirtualFileSystem.getEntry(compiledPath);
+		URL compiledUrl = compiledEntry == null ? locate(compiledPath) : null;
+
+		if (compiledEntry == null && compiledUrl == null) {
+			return null;
+		}
+
+		MountEntry sourceEntry = VirtualFileSystem.getEntry(file.getPath());
+		URL sourceUrl = sourceEntry == null ? locate(file.getPath()) : null;
+
+		// When only the compiled file is shipped it is always used.
+		if (sourceEntry != null || sourceUrl != null) {
+			long compiled = compiledEntry != null ? compiledEntry.getLastModified() : lastModified(compiledUrl);
+			long source = sourceEntry != null ? sourceEntry.getLastModified() : lastModified(sourceUrl);
+
+			if (compiled < source) {
+				return null;
+			}
+		}
+
+		return compiledEntry != null ? compiledEntry.open() : compiledUrl.openStream();
+	}
+
+	/**
+	 * Finds a file on the class path, or else relative to the working directory.
+	 *
+	 * @param path The path to find.
+	 *
+	 * @return The location of the file, or null if it does not exist.
+	 */
+	private static URL locate(String path) {
+		URL url = Class.class.getResource(path);
+
+		if (url != null) {
+			return url;
+		}
+
+		File file = new File(path.startsWith(MyFile.FILE_SEPARATOR) ? path.substring(1) : path);
+
+		try {
+			return file.isFile() ? file.toURI().toURL() : null;
+		} catch (MalformedURLException e) {
+			return null;
+		}
+	}
+
+	private static long lastModified(URL url) {
+		try {
+			URLConnection connection = url.openConnection();
+			connection.setUseCaches(false);
+			long modified = connection.getLastModified();
+			connection.getInputStream().close();
+			return modified;
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Compiles a XML file on disk into its binary form. The compiled file is written to a temporary file then moved into place, so a reader never sees part of a file.
+	 *
+	 * @param source The XML file.
+	 * @param target The compiled file to write.
+	 *
+	 * @throws IOException If the XML file could not be read or is not well formed, or the compiled file could not be written.
+	 */
+	public static void compile(File source, File target) throws IOException {
+		XmlNode root;
+
+		try (XmlPullParser parser = new XmlPullParser(new InputStreamReader(new FileInputStream(source), StandardCharsets.UTF_8))) {
+			root = XmlParser.loadNode(parser);
+		}
+
+		if (root == null) {
+			throw new IOException("XML file has no root element!");
+		}
+
+		File tempFile = new File(target.getPath() + ".tmp");
+
+		try (OutputStream output = new FileOutputStream(tempFile)) {
+			write(root, output);
+		}
+
+		try {
+			Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		Path folder = Paths.get(MyFile.RES_FOLDER.getName());
+		boolean force = false;
+
+		for (String arg : args) {
+			if (arg.equals("-force")) {
+				force = true;
+			} else {
+				folder = Paths.get(arg);
+			}
+		}
+
+		List<Path> sources;
+
+		try (Stream<Path> walk = Files.walk(folder)) {
+			sources = walk.filter(path -> Files.isRegularFile(path) && path.toString().endsWith(".xml")).collect(Collectors.toList());
+		}
+
+		long start = System.nanoTime();
+		AtomicInteger compiled = new AtomicInteger();
+		AtomicInteger skipped = new AtomicInteger();
+		AtomicInteger failed = new AtomicInteger();
+		boolean rebuild = force;
+
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		List<Future<?>> futures = new ArrayList<>();
+
+		try {
+			for (Path path : sources) {
+				futures.add(executor.submit(() -> {
+					File source = path.toFile();
+					File target = new File(getCompiledPath(source.getPath()));
+
+					if (!rebuild && target.lastModified() >= source.lastModified()) {
+						skipped.incrementAndGet();
+						return;
+					}
+
+					try {
+						compile(source, target);
+						compiled.incrementAndGet();
+					} catch (IOException e) {
+						failed.incrementAndGet();
+						System.err.println("Failed to compile " + source + ": " + e.getMessage());
+					}
+				}));
+			}
+
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			// The pool threads are not daemons, so a failed task must not leave them running.
+			executor.shutdown();
+		}
+
+		System.out.println("Compiled " + compiled.get() + " XML files, " + skipped.get() + " up to date, " + failed.get() + " failed, in " + (System.nanoTime() - start) / 1000000L + "ms.");
+
+		if (failed.get() > 0) {
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,559 @@
+package flounder.parsing.xml;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * A read only XML document that is memory mapped from a file. The file is scanned once to find where every element starts and ends, and these offsets are kept in a single int array.
+ * Names, attributes and data are only turned into strings when they are read through {@link XmlMappedNode}, so large files can be opened cheaply when only a few parts of them are used.
+ * The file is expected to be UTF-8 or ASCII.
+ */
+public class XmlMappedDocument implements Closeable {
+	protected static final int NAME_START = 0;
+	protected static final int NAME_END = 1;
+	protected static final int TAG_END = 2;
+	protected static final int CONTENT_END = 3;
+	protected static final int END = 4;
+	protected static final int PARENT = 5;
+	protected static final int FIRST_CHILD = 6;
+	protected static final int NEXT_SIBLING = 7;
+	protected static final int STRIDE = 8;
+
+	private File file;
+	private RandomAccessFile access;
+	private MappedByteBuffer buffer;
+	private int[] index;
+	private int count;
+
+	/**
+	 * Maps a XML file and indexes its elements.
+	 *
+	 * @param file The file to map.
+	 *
+	 * @throws IOException If the file could not be mapped, is larger than 2GB, or is not well formed.
+	 */
+	public XmlMappedDocument(File file) throws IOException {
+		this.file = file;
+		this.access = new RandomAccessFile(file, "r");
+
+		try {
+			FileChannel channel = access.getChannel();
+
+			// Offsets are kept as ints, and a single mapping can not be larger than this.
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("XML file " + file + " is too large to map, it is " + channel.size() + " bytes.");
+			}
+
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			this.index = new int[STRIDE * 64];
+			this.count = 0;
+			scan();
+		} catch (Throwable e) {
+			access.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Finds every element in the file and links them to their parents and siblings.
+	 *
+	 * @throws IOException If the file is not well formed.
+	 */
+	private void scan() throws IOException {
+		int length = buffer.limit();
+		int[] lastChild = new int[32];
+		int current = -1;
+		int depth = 0;
+		int position = 0;
+
+		while (position < length) {
+			if (buffer.get(position) != '<') {
+				position++;
+				continue;
+			}
+
+			int next = position + 1 < length ? buffer.get(position + 1) : -1;
+
+			if (next == '?') {
+				position = find("?>", position + 2) + 2;
+			} else if (next == '!') {
+				if (startsWith("<!--", position)) {
+					position = find("-->", position + 4) + 3;
+				} else if (startsWith("<![CDATA[", position)) {
+					position = find("]]>", position + 9) + 3;
+				} else {
+					position = skipDeclaration(position + 2);
+				}
+			} else if (next == '/') {
+				int nameStart = position + 2;
+				int nameEnd = scanName(nameStart);
+				int tagEnd = find(">", nameEnd) + 1;
+
+				if (current == -1 || !sameName(current, nameStart, nameEnd)) {
+					throw error("End tag does not match its start tag", position);
+				}
+
+				index[current * STRIDE + CONTENT_END] = position;
+				index[current * STRIDE + END] = tagEnd;
+				current = index[current * STRIDE + PARENT];
+				depth--;
+				position = tagEnd;
+			} else {
+				if (current == -1 && count > 0) {
+					throw error("More than one root element", position);
+				}
+
+				int element = add();
+				int base = element * STRIDE;
+				int nameStart = position + 1;
+				int nameEnd = scanName(nameStart);
+				int tagEnd = findTagEnd(nameEnd);
+				boolean selfClosing = buffer.get(tagEnd - 2) == '/';
+
+				index[base + NAME_START] = nameStart;
+				index[base + NAME_END] = nameEnd;
+				index[base + TAG_END] = tagEnd;
+				index[base + PARENT] = current;
+				index[base + FIRST_CHILD] = -1;
+				index[base + NEXT_SIBLING] = -1;
+
+				if (current != -1) {
+					int previous = lastChild[depth - 1];
+
+					if (previous == -1) {
+						index[current * STRIDE + FIRST_CHILD] = element;
+					} else {
+						index[previous * STRIDE + NEXT_SIBLING] = element;
+					}
+
+					lastChild[depth - 1] = element;
+				}
+
+				if (selfClosing) {
+					index[base + CONTENT_END] = tagEnd;
+					index[base + END] = tagEnd;
+				} else {
+					if (depth == lastChild.length) {
+						lastChild = Arrays.copyOf(lastChild, depth * 2);
+					}
+
+					lastChild[depth++] = -1;
+					current = element;
+				}
+
+				position = tagEnd;
+			}
+		}
+
+		if (current != -1) {
+			throw error("Unexpected end of file, " + getName(current) + " was not closed", length);
+		}
+
+		if (count == 0) {
+			throw error("No root element", length);
+		}
+	}
+
+	private int add() {
+		if ((count + 1) * STRIDE > index.length) {
+			index = Arrays.copyOf(index, index.length * 2);
+		}
+
+		return count++;
+	}
+
+	private int scanName(int position) throws IOException {
+		int start = position;
+
+		while (position < buffer.limit()) {
+			byte b = buffer.get(position);
+
+			if (b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '>' || b == '/') {
+				break;
+			}
+
+			position++;
+		}
+
+		if (position == start) {
+			throw error("Expected a name", position);
+		}
+
+		return position;
+	}
+
+	/**
+	 * Finds the end of a start tag, skipping over quoted attribute values which can contain '>'.
+	 *
+	 * @param position The position after the tag name.
+	 *
+	 * @return The position after the closing '>'.
+	 *
+	 * @throws IOException If the tag is not closed.
+	 */
+	private int findTagEnd(int position) throws IOException {
+		byte quote = 0;
+
+		while (position < buffer.limit()) {
+			byte b = buffer.get(position++);
+
+			if (quote != 0) {
+				if (b == quote) {
+					quote = 0;
+				}
+			} else if (b == '"' || b == '\'') {
+				quote = b;
+			} else if (b == '>') {
+				return position;
+			}
+		}
+
+		throw error("Unexpected end of file in start tag", position);
+	}
+
+	private int skipDeclaration(int position) throws IOException {
+		int depth = 0;
+
+		while (position < buffer.limit()) {
+			byte b = buffer.get(position++);
+
+			if (b == '[') {
+				depth++;
+			} else if (b == ']') {
+				depth--;
+			} else if (b == '>' && depth <= 0) {
+				return position;
+			}
+		}
+
+		throw error("Unexpected end of file in declaration", position);
+	}
+
+	private int find(String value, int position) throws IOException {
+		int last = buffer.limit() - value.length();
+
+		for (int i = position; i <= last; i++) {
+			if (startsWith(value, i)) {
+				return i;
+			}
+		}
+
+		throw error("Unexpected end of file, expected " + value, buffer.limit());
+	}
+
+	private boolean startsWith(String value, int position) {
+		if (position + value.length() > buffer.limit()) {
+			return false;
+		}
+
+		for (int i = 0; i < value.length(); i++) {
+			if (buffer.get(position + i) != value.charAt(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private boolean sameName(int element, int start, int end) {
+		int nameStart = index[element * STRIDE + NAME_START];
+		int nameEnd = index[element * STRIDE + NAME_END];
+
+		if (nameEnd - nameStart != end - start) {
+			return false;
+		}
+
+		for (int i = 0; i < end - start; i++) {
+			if (buffer.get(nameStart + i) != buffer.get(start + i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private IOException error(String message, int position) {
+		return new IOException(message + " at byte " + position + " of " + file + ".");
+	}
+
+	/**
+	 * Gets the root element of the document.
+	 *
+	 * @return The root node.
+	 */
+	public XmlMappedNode getRoot() {
+		return new XmlMappedNode(this, 0);
+	}
+
+	/**
+	 * Gets the number of elements in the document.
+	 *
+	 * @return The element count.
+	 */
+	public int getElementCount() {
+		return count;
+	}
+
+	/**
+	 * Gets a value from the element index.
+	 *
+	 * @param element The element.
+	 * @param field The field, such as {@link #FIRST_CHILD}.
+	 *
+	 * @return The value.
+	 */
+	protected int get(int element, int field) {
+		return index[element * STRIDE + field];
+	}
+
+	/**
+	 * Gets the name of a element as a string.
+	 *
+	 * @param element The element.
+	 *
+	 * @return The name.
+	 */
+	protected String getName(int element) {
+		return decode(index[element * STRIDE + NAME_START], index[element * STRIDE + NAME_END]);
+	}
+
+	/**
+	 * Gets if a element has a name, without creating a string for it.
+	 *
+	 * @param element The element.
+	 * @param name The name as UTF-8 bytes.
+	 *
+	 * @return If the names match.
+	 */
+	protected boolean hasName(int element, byte[] name) {
+		int start = index[element * STRIDE + NAME_START];
+
+		if (index[element * STRIDE + NAME_END] - start != name.length) {
+			return false;
+		}
+
+		for (int i = 0; i < name.length; i++) {
+			if (buffer.get(start + i) != name[i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Finds a attribute in the start tag of a element, and decodes its value.
+	 *
+	 * @param element The element.
+	 * @param name The attribute name as UTF-8 bytes.
+	 *
+	 * @return The attribute value, or null if the element does not have it.
+	 */
+	protected String getAttribute(int element, byte[] name) {
+		int position = index[element * STRIDE + NAME_END];
+		int end = index[element * STRIDE + TAG_END];
+
+		while (position < end) {
+			byte b = buffer.get(position);
+
+			if (b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '/' || b == '>') {
+				position++;
+				continue;
+			}
+
+			int nameStart = position;
+
+			while (position < end && buffer.get(position) != '=' && buffer.get(position) != ' ' && buffer.get(position) != '\t' && buffer.get(position) != '\n' && buffer.get(position) != '\r') {
+				position++;
+			}
+
+			int nameEnd = position;
+
+			while (position < end && buffer.get(position) != '"' && buffer.get(position) != '\'') {
+				position++;
+			}
+
+			if (position >= end) {
+				return null;
+			}
+
+			byte quote = buffer.get(position++);
+			int valueStart = position;
+
+			while (position < end && buffer.get(position) != quote) {
+				position++;
+			}
+
+			if (nameEnd - nameStart == name.length) {
+				boolean matches = true;
+
+				for (int i = 0; i < name.length && matches; i++) {
+					matches = buffer.get(nameStart + i) == name[i];
+				}
+
+				if (matches) {
+					return unescape(decode(valueStart, position));
+				}
+			}
+
+			position++;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Gets the text directly inside a element, skipping its children. CDATA sections are unwrapped and entities are replaced.
+	 *
+	 * @param element The element.
+	 *
+	 * @return The text, or null if the element only contains whitespace.
+	 */
+	protected String getData(int element) {
+		int position = index[element * STRIDE + TAG_END];
+		int end = index[element * STRIDE + CONTENT_END];
+		int child = index[element * STRIDE + FIRST_CHILD];
+		StringBuilder result = new StringBuilder();
+
+		while (position < end) {
+			int next = position;
+
+			while (next < end && buffer.get(next) != '<') {
+				next++;
+			}
+
+			result.append(unescape(decode(position, next)));
+			position = next;
+
+			if (position >= end) {
+				break;
+			}
+
+			if (startsWith("<![CDATA[", position)) {
+				int close = position + 9;
+
+				while (close < end && !startsWith("]]>", close)) {
+					close++;
+				}
+
+				result.append(decode(position + 9, close));
+				position = close + 3;
+			} else if (startsWith("<!--", position)) {
+				int close = position + 4;
+
+				while (close < end && !startsWith("-->", close)) {
+					close++;
+				}
+
+				position = close + 3;
+			} else if (child != -1 && index[child * STRIDE + NAME_START] == position + 1) {
+				position = index[child * STRIDE + END];
+				child = index[child * STRIDE + NEXT_SIBLING];
+			} else {
+				// A processing instruction, skipped over.
+				while (position < end && buffer.get(position) != '>') {
+					position++;
+				}
+
+				position++;
+			}
+		}
+
+		for (int i = 0; i < result.length(); i++) {
+			if (!Character.isWhitespace(result.charAt(i))) {
+				return result.toString();
+			}
+		}
+
+		return null;
+	}
+
+	private String decode(int start, int end) {
+		byte[] bytes = new byte[end - start];
+
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(start + i);
+		}
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Replaces the XML entities and character references in a string.
+	 *
+	 * @param value The string.
+	 *
+	 * @return The string with entities replaced.
+	 */
+	private static String unescape(String value) {
+		int amp = value.indexOf('&');
+
+		if (amp == -1) {
+			return value;
+		}
+
+		StringBuilder result = new StringBuilder(value.length());
+		result.append(value, 0, amp);
+
+		for (int i = amp; i < value.length(); i++) {
+			char c = value.charAt(i);
+			int semicolon;
+
+			if (c != '&' || (semicolon = value.indexOf(';', i)) == -1 || semicolon - i > 12) {
+				result.append(c);
+				continue;
+			}
+
+			String entity = value.substring(i + 1, semicolon);
+
+			switch (entity) {
+				case "lt":
+					result.append('<');
+					break;
+				case "gt":
+					result.append('>');
+					break;
+				case "amp":
+					result.append('&');
+					break;
+				case "quot":
+					result.append('"');
+					break;
+				case "apos":
+					result.append('\'');
+					break;
+				default:
+					try {
+						if (entity.startsWith("#x")) {
+							result.appendCodePoint(Integer.parseInt(entity.substring(2), 16));
+						} else if (entity.startsWith("#")) {
+							result.appendCodePoint(Integer.parseInt(entity.substring(1)));
+						} else {
+							result.append(c);
+							continue;
+						}
+					} catch (IllegalArgumentException e) {
+						result.append(c);
+						continue;
+					}
+			}
+
+			i = semicolon;
+		}
+
+		return result.toString();
+	}
+
+	/**
+	 * Closes the file. The mapping itself is released by the garbage collector once no nodes are left using it.
+	 *
+	 * @throws IOException If the file could not be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		access.close();
+	}
+}
@@ -0,0 +1,139 @@
+package flounder.parsing.xml;
+
+import flounder.logger.*;
+
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * A element in a {@link XmlMappedDocument}. This has the same navigation methods as {@link XmlNode}, but only holds the document and the element's index, and reads strings from the mapped file when asked.
+ */
+public class XmlMappedNode {
+	private XmlMappedDocument document;
+	private int element;
+
+	protected XmlMappedNode(XmlMappedDocument document, int element) {
+		this.document = document;
+		this.element = element;
+	}
+
+	/**
+	 * Gets the name of the XML node.
+	 *
+	 * @return The name of the XML node.
+	 */
+	public String getName() {
+		return document.getName(element);
+	}
+
+	/**
+	 * Gets any text data contained between the start and end tag of the node.
+	 *
+	 * @return The text data.
+	 */
+	public String getData() {
+		return document.getData(element);
+	}
+
+	/**
+	 * Gets the value of a certain attribute of the node. Returns {@code null} if the attribute doesn't exist.
+	 *
+	 * @param attribute The name of the attribute.
+	 *
+	 * @return The value of the attribute.
+	 */
+	public String getAttribute(String attribute) {
+		return document.getAttribute(element, attribute.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Gets a certain child node of this node.
+	 *
+	 * @param childName The name of the child node.
+	 *
+	 * @return The child XML node with the given name.
+	 */
+	public XmlMappedNode getChild(String childName) {
+		byte[] name = childName.getBytes(StandardCharsets.UTF_8);
+
+		for (int child = document.get(element, XmlMappedDocument.FIRST_CHILD); child != -1; child = document.get(child, XmlMappedDocument.NEXT_SIBLING)) {
+			if (document.hasName(child, name)) {
+				return new XmlMappedNode(document, child);
+			}
+		}
+
+		FlounderLogger.get().error("Could not find Xml node child: {} in parent {}", childName, getName());
+		return null;
+	}
+
+	/**
+	 * Gets a child node with a certain name, and with a given value of a given attribute.
+	 * Used to get a specific child when there are multiple child nodes with the same node name.
+	 *
+	 * @param childName The name of the child node.
+	 * @param attribute The attribute whose value is to be checked.
+	 * @param value The value that the attribute must have.
+	 *
+	 * @return The child node which has the correct name and the correct value for the chosen attribute.
+	 */
+	public XmlMappedNode getChildWithAttribute(String childName, String attribute, String value) {
+		byte[] name = childName.getBytes(StandardCharsets.UTF_8);
+		byte[] attributeName = attribute.getBytes(StandardCharsets.UTF_8);
+		boolean found = false;
+
+		for (int child = document.get(element, XmlMappedDocument.FIRST_CHILD); child != -1; child = document.get(child, XmlMappedDocument.NEXT_SIBLING)) {
+			if (document.hasName(child, name)) {
+				found = true;
+
+				if (value.equals(document.getAttribute(child, attributeName))) {
+					return new XmlMappedNode(document, child);
+				}
+			}
+		}
+
+		if (found) {
+			FlounderLogger.get().error("Could not find Xml node child: {} in parent {} with attribute {}", childName, getName(), attribute);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Get the child nodes of this node that have a given name.
+	 *
+	 * @param name The name of the child nodes.
+	 *
+	 * @return A list of the child nodes with the given name. If none exist then an empty list is returned.
+	 */
+	public List<XmlMappedNode> getChildren(String name) {
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		List<XmlMappedNode> result = new ArrayList<>();
+
+		for (int child = document.get(element, XmlMappedDocument.FIRST_CHILD); child != -1; child = document.get(child, XmlMappedDocument.NEXT_SIBLING)) {
+			if (document.hasName(child, bytes)) {
+				result.add(new XmlMappedNode(document, child));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Gets the document this node is in, this should be closed once its nodes are no longer used.
+	 *
+	 * @return The document.
+	 */
+	public XmlMappedDocument getDocument() {
+		return document;
+	}
+
+	/**
+	 * Gets the parent of this node.
+	 *
+	 * @return The parent node, or null if this is the root.
+	 */
+	public XmlMappedNode getParent() {
+		int parent = document.get(element, XmlMappedDocument.PARENT);
+		return parent == -1 ? null : new XmlMappedNode(document, parent);
+	}
+}
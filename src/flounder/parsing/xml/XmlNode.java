@@ -5,16 +5,31 @@ import flounder.logger.*;
 import java.util.*;
 
 /**
- * Represents a node in an XML file. This contains the name of the node, a map of the attributes and their values, any text data between the start and end tag, and a list of all its children nodes.
+ * Represents a node in an XML file. This contains the name of the node, the attributes and their values, any text data between the start and end tag, and a list of all its children nodes in document order.
+ * Attributes and children are kept in small flat arrays rather than maps, as most nodes only have a few of each. Nodes with many children build a map of their children by name when it is first needed.
+ * A tree is built by one thread, and once it is shared it may be read from any thread. Indexes are only published once they are fully built, and are never changed after.
  */
 public class XmlNode {
+	private static final String[] NO_ATTRIBUTES = new String[0];
+	private static final XmlNode[] NO_CHILDREN = new XmlNode[0];
+
+	/**
+	 * Nodes with more children than this look children up in a map by name, rather than checking every child.
+	 */
+	private static final int NAME_INDEX_THRESHOLD = 8;
+
 	private String name;
-	private Map<String, String> attributes;
 	private String data;
-	private Map<String, List<XmlNode>> childNodes;
+	private String[] attributes;
+	private XmlNode[] children;
+	private int childCount;
+	private volatile Map<String, List<XmlNode>> childNodes;
+	private volatile Map<String, Map<String, Map<String, List<XmlNode>>>> attributeIndexes;
 
 	protected XmlNode(String name) {
 		this.name = name;
+		this.attributes = NO_ATTRIBUTES;
+		this.children = NO_CHILDREN;
 	}
 
 	/**
@@ -43,11 +58,44 @@ public class XmlNode {
 	 * @return The value of the attribute.
 	 */
 	public String getAttribute(String attribute) {
-		if (attributes != null) {
-			return attributes.get(attribute);
-		} else {
-			return null;
+		for (int i = 0; i < attributes.length; i += 2) {
+			if (attributes[i].equals(attribute)) {
+				return attributes[i + 1];
+			}
 		}
+
+		return null;
+	}
+
+	/**
+	 * Gets the number of attributes on the node.
+	 *
+	 * @return The number of attributes.
+	 */
+	public int getAttributeCount() {
+		return attributes.length / 2;
+	}
+
+	/**
+	 * Gets the name of a attribute on the node, attributes are in the order they were added.
+	 *
+	 * @param index The attribute index.
+	 *
+	 * @return The attribute name.
+	 */
+	public String getAttributeName(int index) {
+		return attributes[index * 2];
+	}
+
+	/**
+	 * Gets the value of a attribute on the node, attributes are in the order they were added.
+	 *
+	 * @param index The attribute index.
+	 *
+	 * @return The attribute value.
+	 */
+	public String getAttributeValue(int index) {
+		return attributes[index * 2 + 1];
 	}
 
 	/**
@@ -58,15 +106,21 @@ public class XmlNode {
 	 * @return The child XML node with the given name.
 	 */
 	public XmlNode getChild(String childName) {
-		if (childNodes != null) {
-			List<XmlNode> nodes = childNodes.get(childName);
+		if (childCount > NAME_INDEX_THRESHOLD) {
+			List<XmlNode> nodes = getChildNodes().get(childName);
 
-			if (nodes != null && !nodes.isEmpty()) {
+			if (nodes != null) {
 				return nodes.get(0);
 			}
+		} else {
+			for (int i = 0; i < childCount; i++) {
+				if (children[i].name.equals(childName)) {
+					return children[i];
+				}
+			}
 		}
 
-		FlounderLogger.get().error("Could not find Xml node child: " + childName + " in parent " + name);
+		FlounderLogger.get().error("Could not find Xml node child: {} in parent {}", childName, name);
 		return null;
 	}
 
@@ -81,70 +135,213 @@ public class XmlNode {
 	 * @return The child node which has the correct name and the correct value for the chosen attribute.
 	 */
 	public XmlNode getChildWithAttribute(String childName, String attribute, String value) {
-		List<XmlNode> children = getChildren(childName);
+		List<XmlNode> matches = getChildrenWithAttribute(childName, attribute, value);
 
-		if (children == null || children.isEmpty()) {
-			return null;
+		if (!matches.isEmpty()) {
+			return matches.get(0);
 		}
 
-		for (XmlNode child : children) {
-			String val = child.getAttribute(attribute);
-
-			if (value.equals(val)) {
-				return child;
-			}
+		if (!getChildren(childName).isEmpty()) {
+			FlounderLogger.get().error("Could not find Xml node child: {} in parent {} with attribute {}", childName, name, attribute);
 		}
 
-		FlounderLogger.get().error("Could not find Xml node child: " + childName + " in parent " + name + " with attribute " + attribute);
 		return null;
 	}
 
+	/**
+	 * Gets the child nodes with a certain name and a given value of a given attribute, without logging when there are none.
+	 * The first lookup for a child name and attribute builds a index of the children by that attribute's value, so later lookups do not scan the children.
+	 *
+	 * @param childName The name of the child nodes.
+	 * @param attribute The attribute whose value is to be checked.
+	 * @param value The value that the attribute must have.
+	 *
+	 * @return The matching child nodes, in order. If none exist then an empty list is returned. The list is shared with other lookups and can not be changed.
+	 */
+	public List<XmlNode> getChildrenWithAttribute(String childName, String attribute, String value) {
+		if (childCount == 0) {
+			return Collections.emptyList();
+		}
+
+		List<XmlNode> result = getAttributeIndex(childName, attribute).get(value);
+		return result == null ? Collections.emptyList() : result;
+	}
+
 	/**
 	 * Get the child nodes of this node that have a given name.
 	 *
 	 * @param name The name of the child nodes.
 	 *
-	 * @return A list of the child nodes with the given name. If none exist then an empty list is returned.
+	 * @return A new list of the child nodes with the given name, in document order. If none exist then an empty list is returned.
 	 */
 	public List<XmlNode> getChildren(String name) {
-		if (childNodes != null) {
-			List<XmlNode> children = childNodes.get(name);
+		if (childCount > NAME_INDEX_THRESHOLD) {
+			List<XmlNode> nodes = getChildNodes().get(name);
+			return nodes == null ? new ArrayList<>() : new ArrayList<>(nodes);
+		}
+
+		List<XmlNode> result = new ArrayList<>();
+
+		for (int i = 0; i < childCount; i++) {
+			if (children[i].name.equals(name)) {
+				result.add(children[i]);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Gets all the child nodes of this node.
+	 *
+	 * @return A new list of all child nodes, in document order. If none exist then an empty list is returned.
+	 */
+	public List<XmlNode> getChildren() {
+		return new ArrayList<>(Arrays.asList(children).subList(0, childCount));
+	}
+
+	/**
+	 * Gets the number of child nodes of this node.
+	 *
+	 * @return The number of child nodes.
+	 */
+	public int getChildCount() {
+		return childCount;
+	}
+
+	/**
+	 * Gets a child node by its position.
+	 *
+	 * @param index The child index, in document order.
+	 *
+	 * @return The child node.
+	 */
+	public XmlNode getChild(int index) {
+		if (index < 0 || index >= childCount) {
+			throw new IndexOutOfBoundsException("Child " + index + " of " + childCount);
+		}
+
+		return children[index];
+	}
+
+	private Map<String, List<XmlNode>> getChildNodes() {
+		Map<String, List<XmlNode>> nodes = childNodes;
+
+		if (nodes == null) {
+			Map<String, List<XmlNode>> built = new HashMap<>();
+
+			for (int i = 0; i < childCount; i++) {
+				built.computeIfAbsent(children[i].name, k -> new ArrayList<>()).add(children[i]);
+			}
+
+			built.replaceAll((k, list) -> Collections.unmodifiableList(list));
+
+			// Two threads may both build the map, either one is correct.
+			nodes = built;
+			childNodes = nodes;
+		}
+
+		return nodes;
+	}
+
+	/**
+	 * Gets the index of the children with a name by the value of a attribute, building it if this is the first lookup.
+	 *
+	 * @param childName The name of the child nodes.
+	 * @param attribute The attribute the children are indexed by.
+	 *
+	 * @return The children by attribute value.
+	 */
+	private Map<String, List<XmlNode>> getAttributeIndex(String childName, String attribute) {
+		Map<String, Map<String, Map<String, List<XmlNode>>>> indexes = attributeIndexes;
+		Map<String, Map<String, List<XmlNode>>> byAttribute = indexes == null ? null : indexes.get(childName);
+		Map<String, List<XmlNode>> index = byAttribute == null ? null : byAttribute.get(attribute);
+
+		if (index != null) {
+			return index;
+		}
+
+		Map<String, List<XmlNode>> built = new HashMap<>();
 
-			if (children != null) {
-				return children;
+		for (XmlNode child : getChildren(childName)) {
+			String val = child.getAttribute(attribute);
+
+			if (val != null) {
+				built.computeIfAbsent(val, k -> new ArrayList<>(1)).add(child);
 			}
 		}
 
-		return new ArrayList<>();
+		built.replaceAll((k, list) -> Collections.unmodifiableList(list));
+
+		// Published maps are never changed, so a new index is added by copying the maps above it. Only one index is added per child name and attribute looked up.
+		synchronized (this) {
+			indexes = attributeIndexes;
+			Map<String, Map<String, Map<String, List<XmlNode>>>> nextIndexes = indexes == null ? new HashMap<>() : new HashMap<>(indexes);
+			byAttribute = nextIndexes.get(childName);
+			Map<String, Map<String, List<XmlNode>>> nextByAttribute = byAttribute == null ? new HashMap<>() : new HashMap<>(byAttribute);
+			nextByAttribute.put(attribute, built);
+			nextIndexes.put(childName, nextByAttribute);
+			attributeIndexes = nextIndexes;
+		}
+
+		return built;
 	}
 
 	/**
-	 * Adds a new attribute to this node. An attribute has a name and a value.
-	 * Attributes are stored in a HashMap which is initialized in here if it was previously null.
+	 * Adds a new attribute to this node. An attribute has a name and a value, and a existing attribute with the same name is replaced.
 	 *
 	 * @param attribute The name of the attribute.
 	 * @param value The value of the attribute.
 	 */
 	protected void addAttribute(String attribute, String value) {
-		if (attributes == null) {
-			attributes = new HashMap<>();
+		for (int i = 0; i < attributes.length; i += 2) {
+			if (attributes[i].equals(attribute)) {
+				attributes[i + 1] = value;
+				return;
+			}
 		}
 
-		attributes.put(attribute, value);
+		// Arrays are kept to their exact size, most nodes only have a few attributes.
+		attributes = Arrays.copyOf(attributes, attributes.length + 2);
+		attributes[attributes.length - 2] = attribute;
+		attributes[attributes.length - 1] = value;
 	}
 
 	/**
-	 * Adds a child node to this node.
+	 * Adds a child node to this node. This is only called while the tree is being built, before it is shared with other threads.
 	 *
 	 * @param child The child node to add.
 	 */
 	protected void addChild(XmlNode child) {
-		if (childNodes == null) {
-			childNodes = new HashMap<>();
+		if (childCount == children.length) {
+			children = Arrays.copyOf(children, childCount == 0 ? 2 : childCount * 2);
 		}
 
-		List<XmlNode> list = childNodes.computeIfAbsent(child.name, k -> new ArrayList<>());
-		list.add(child);
+		children[childCount++] = child;
+
+		// Indexes are built again on the next lookup.
+		childNodes = null;
+		attributeIndexes = null;
+	}
+
+	/**
+	 * Sets how many children this node will have, so adding them does not grow the child array more than once.
+	 *
+	 * @param count The number of children.
+	 */
+	protected void reserveChildren(int count) {
+		if (count > children.length) {
+			children = Arrays.copyOf(children, count);
+		}
+	}
+
+	/**
+	 * Shrinks the child array to the number of children, called once all the children have been added.
+	 */
+	protected void trim() {
+		if (childCount < children.length) {
+			children = childCount == 0 ? NO_CHILDREN : Arrays.copyOf(children, childCount);
+		}
 	}
 
 	/**
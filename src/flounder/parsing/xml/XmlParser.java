@@ -4,102 +4,126 @@ import flounder.logger.*;
 import flounder.resources.*;
 
 import java.io.*;
-import java.util.regex.*;
+import java.util.*;
 
 /**
  * Reads an XML file and stores all the data in {@link XmlNode} objects, allowing for easy access to the data contained in the XML file.
  */
 public class XmlParser {
-	private static final Pattern DATA = Pattern.compile(">(.+?)<");
-	private static final Pattern START_TAG = Pattern.compile("<(.+?)>");
-	private static final Pattern ATTR_NAME = Pattern.compile("(.+?)=");
-	private static final Pattern ATTR_VAL = Pattern.compile("\"(.+?)\"");
-	private static final Pattern CLOSED = Pattern.compile("(</|/>)");
-
 	/**
 	 * Reads an XML file and stores all the data in {@link XmlNode} objects, allowing for easy access to the data contained in the XML file.
+	 * If a compiled form of the file from {@link XmlBinary} exists and is not older than the file, that is loaded instead without parsing any text.
 	 *
 	 * @param file The XML file
 	 *
-	 * @return The root node of the XML structure.
+	 * @return The root node of the XML structure, or null if the file could not be read.
 	 */
 	public static XmlNode loadXmlFile(MyFile file) {
-		BufferedReader reader;
-
-		try {
-			reader = file.getReader();
-		} catch (Exception e) {
-			e.printStackTrace();
-			FlounderLogger.get().log("Can't find the XML file: " + file.getPath());
-			System.exit(0);
-			return null;
-		}
-
-		try {
-			reader.readLine();
-			XmlNode node = loadNode(reader);
-			reader.close();
-			return node;
-		} catch (Exception e) {
-			e.printStackTrace();
-			FlounderLogger.get().log("Error with XML file format for: " + file.getPath());
-			System.exit(0);
-			return null;
+		try (InputStream input = XmlBinary.openCompiled(file)) {
+			if (input != null) {
+				return XmlBinary.read(input);
+			}
+		} catch (IOException e) {
+			FlounderLogger.get().warning("Could not read compiled XML file for {}, parsing the text instead: {}", file.getPath(), e.getMessage());
 		}
-	}
 
-	private static XmlNode loadNode(BufferedReader reader) throws Exception {
-		String line = reader.readLine().trim();
+		BufferedReader reader = file.getReader();
 
-		if (line.startsWith("</")) {
+		if (reader == null) {
+			FlounderLogger.get().error("Can't find the XML file: {}", file.getPath());
 			return null;
 		}
 
-		String[] startTagParts = getStartTag(line).split(" ");
-		XmlNode node = new XmlNode(startTagParts[0].replace("/", ""));
-		addAttributes(startTagParts, node);
-		addData(line, node);
-
-		if (CLOSED.matcher(line).find()) {
-			return node;
-		}
-
-		XmlNode child;
-
-		while ((child = loadNode(reader)) != null) {
-			node.addChild(child);
+		try (XmlPullParser parser = new XmlPullParser(reader)) {
+			return loadNode(parser);
+		} catch (IOException e) {
+			FlounderLogger.get().error("Error with XML file format for: {}", file.getPath());
+			FlounderLogger.get().exception(e);
+			return null;
 		}
-
-		return node;
 	}
 
-	private static void addData(String line, XmlNode node) {
-		Matcher matcher = DATA.matcher(line);
-
-		if (matcher.find()) {
-			node.setData(matcher.group(1));
+	/**
+	 * Memory maps an XML file as a read only document, where strings are only read from the file when they are used. This is better than {@link #loadXmlFile(MyFile)} for large files where only some nodes are read.
+	 * The document holds the file open, so it must be closed once its nodes are no longer used.
+	 *
+	 * @param file The XML file, this must be a file on disk.
+	 *
+	 * @return The document, its root node is found with {@link XmlMappedDocument#getRoot()}. Null if the file could not be read.
+	 */
+	public static XmlMappedDocument loadMappedFile(File file) {
+		try {
+			return new XmlMappedDocument(file);
+		} catch (IOException e) {
+			FlounderLogger.get().error("Error with XML file format for: {}", file.getPath());
+			FlounderLogger.get().exception(e);
+			return null;
 		}
 	}
 
-	private static void addAttributes(String[] titleParts, XmlNode node) {
-		for (int i = 1; i < titleParts.length; i++) {
-			if (titleParts[i].contains("=")) {
-				addAttribute(titleParts[i], node);
+	/**
+	 * Builds a tree of nodes from a pull parser, using a stack rather than recursion so deep files do not overflow.
+	 *
+	 * @param parser The parser to read from.
+	 *
+	 * @return The root node, or null if the file has no elements.
+	 *
+	 * @throws IOException If the file could not be read or is not well formed.
+	 */
+	public static XmlNode loadNode(XmlPullParser parser) throws IOException {
+		Deque<XmlNode> open = new ArrayDeque<>();
+		// The text of each open element, kept apart so text split by CDATA, entities or buffer refills is joined once when the element ends. A entry is null until the element has text.
+		List<StringBuilder> texts = new ArrayList<>();
+		XmlNode root = null;
+		XmlPullParser.Event event;
+
+		while ((event = parser.next()) != XmlPullParser.Event.END_DOCUMENT) {
+			switch (event) {
+				case START_ELEMENT:
+					XmlNode node = new XmlNode(parser.getName());
+
+					for (int i = 0; i < parser.getAttributeCount(); i++) {
+						node.addAttribute(parser.getAttributeName(i), parser.getAttributeValue(i));
+					}
+
+					if (open.isEmpty()) {
+						if (root != null) {
+							throw new IOException("XML file has more than one root element at line " + parser.getLine() + ".");
+						}
+
+						root = node;
+					} else {
+						open.peek().addChild(node);
+					}
+
+					open.push(node);
+					texts.add(null);
+					break;
+				case END_ELEMENT:
+					XmlNode closed = open.pop();
+					StringBuilder text = texts.remove(texts.size() - 1);
+
+					if (text != null) {
+						closed.setData(text.toString());
+					}
+
+					closed.trim();
+					break;
+				case TEXT:
+					if (!open.isEmpty() && !parser.isWhitespace()) {
+						int top = texts.size() - 1;
+
+						if (texts.get(top) == null) {
+							texts.set(top, new StringBuilder(parser.getText()));
+						} else {
+							texts.get(top).append(parser.getText());
+						}
+					}
+
+					break;
 			}
 		}
-	}
-
-	private static void addAttribute(String attributeLine, XmlNode node) {
-		Matcher nameMatch = ATTR_NAME.matcher(attributeLine);
-		nameMatch.find();
-		Matcher valMatch = ATTR_VAL.matcher(attributeLine);
-		valMatch.find();
-		node.addAttribute(nameMatch.group(1), valMatch.group(1));
-	}
 
-	private static String getStartTag(String line) {
-		Matcher match = START_TAG.matcher(line);
-		match.find();
-		return match.group(1);
+		return root;
 	}
 }
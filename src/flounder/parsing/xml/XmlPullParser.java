@@ -0,0 +1,607 @@
+package flounder.parsing.xml;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A streaming XML reader that reads a file character by character and reports it as a series of events, without building a tree.
+ * Whitespace and line breaks can be anywhere, and comments, processing instructions, doctypes, CDATA sections and entities are handled. This can be used on files too large to load as {@link XmlNode}s.
+ * Element and attribute names are shared for the life of the parser, so the same name read twice is the same string.
+ */
+public class XmlPullParser implements Closeable {
+	/**
+	 * The events reported while reading.
+	 */
+	public enum Event {
+		/**
+		 * A start tag, the name and attributes of the element can be read.
+		 */
+		START_ELEMENT,
+		/**
+		 * A end tag, also reported straight after the start of a self closing element.
+		 */
+		END_ELEMENT,
+		/**
+		 * Text or a CDATA section between tags.
+		 */
+		TEXT,
+		/**
+		 * The end of the file.
+		 */
+		END_DOCUMENT
+	}
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private Reader reader;
+	private char[] buffer;
+	private int position;
+	private int limit;
+	private int line;
+	private int column;
+
+	private Event event;
+	private List<String> elements;
+	private String name;
+	private StringBuilder text;
+	private String[] attributeNames;
+	private String[] attributeValues;
+	private int attributeCount;
+	private boolean pendingEnd;
+
+	private String[] names;
+	private int nameCount;
+
+	/**
+	 * Creates a new pull parser.
+	 *
+	 * @param reader The reader to parse, this is closed when the parser is closed.
+	 */
+	public XmlPullParser(Reader reader) {
+		this.reader = reader;
+		this.buffer = new char[BUFFER_SIZE];
+		this.position = 0;
+		this.limit = 0;
+		this.line = 1;
+		this.column = 0;
+
+		this.event = null;
+		this.elements = new ArrayList<>();
+		this.name = null;
+		this.text = new StringBuilder();
+		this.attributeNames = new String[8];
+		this.attributeValues = new String[8];
+		this.attributeCount = 0;
+		this.pendingEnd = false;
+
+		this.names = new String[64];
+		this.nameCount = 0;
+	}
+
+	/**
+	 * Reads up to the next event.
+	 *
+	 * @return The event that was read.
+	 *
+	 * @throws IOException If the file could not be read or is not well formed.
+	 */
+	public Event next() throws IOException {
+		if (pendingEnd) {
+			pendingEnd = false;
+			attributeCount = 0;
+			name = elements.remove(elements.size() - 1);
+			return event = Event.END_ELEMENT;
+		}
+
+		if (event == Event.END_ELEMENT) {
+			name = null;
+		}
+
+		attributeCount = 0;
+
+		while (true) {
+			int c = peek();
+
+			if (c == -1) {
+				if (!elements.isEmpty()) {
+					throw error("Unexpected end of file, " + elements.get(elements.size() - 1) + " was not closed");
+				}
+
+				return event = Event.END_DOCUMENT;
+			}
+
+			if (c != '<') {
+				readText();
+				return event = Event.TEXT;
+			}
+
+			read();
+			c = peek();
+
+			if (c == '?') {
+				skipPast("?>");
+			} else if (c == '!') {
+				read();
+
+				if (skipIf("--")) {
+					skipPast("-->");
+				} else if (skipIf("[CDATA[")) {
+					readCData();
+					return event = Event.TEXT;
+				} else {
+					skipDeclaration();
+				}
+			} else if (c == '/') {
+				read();
+				String end = readName();
+				skipWhitespace();
+				expect('>');
+
+				if (elements.isEmpty() || !elements.get(elements.size() - 1).equals(end)) {
+					throw error("End tag " + end + " does not match " + (elements.isEmpty() ? "any start tag" : elements.get(elements.size() - 1)));
+				}
+
+				name = elements.remove(elements.size() - 1);
+				return event = Event.END_ELEMENT;
+			} else {
+				readStartTag();
+				return event = Event.START_ELEMENT;
+			}
+		}
+	}
+
+	private void readStartTag() throws IOException {
+		name = readName();
+		elements.add(name);
+
+		while (true) {
+			skipWhitespace();
+			int c = read();
+
+			if (c == '>') {
+				return;
+			} else if (c == '/') {
+				expect('>');
+				pendingEnd = true;
+				return;
+			} else if (c == -1) {
+				throw error("Unexpected end of file in start tag " + name);
+			}
+
+			position--;
+			column--;
+			String attribute = readName();
+			skipWhitespace();
+			expect('=');
+			skipWhitespace();
+			int quote = read();
+
+			if (quote != '"' && quote != '\'') {
+				throw error("Attribute " + attribute + " in " + name + " is not quoted");
+			}
+
+			text.setLength(0);
+
+			while ((c = read()) != quote) {
+				if (c == -1) {
+					throw error("Unexpected end of file in attribute " + attribute);
+				} else if (c == '&') {
+					readEntity();
+				} else {
+					text.append((char) c);
+				}
+			}
+
+			if (attributeCount == attributeNames.length) {
+				attributeNames = Arrays.copyOf(attributeNames, attributeCount * 2);
+				attributeValues = Arrays.copyOf(attributeValues, attributeCount * 2);
+			}
+
+			attributeNames[attributeCount] = attribute;
+			attributeValues[attributeCount] = text.toString();
+			attributeCount++;
+		}
+	}
+
+	private void readText() throws IOException {
+		text.setLength(0);
+		int c;
+
+		while ((c = peek()) != -1 && c != '<') {
+			read();
+
+			if (c == '&') {
+				readEntity();
+			} else {
+				text.append((char) c);
+			}
+		}
+	}
+
+	private void readCData() throws IOException {
+		text.setLength(0);
+		int c;
+
+		while ((c = read()) != -1) {
+			text.append((char) c);
+			int length = text.length();
+
+			if (c == '>' && length >= 3 && text.charAt(length - 2) == ']' && text.charAt(length - 3) == ']') {
+				text.setLength(length - 3);
+				return;
+			}
+		}
+
+		throw error("Unexpected end of file in CDATA section");
+	}
+
+	/**
+	 * Reads a entity after its '&', and appends the character it stands for to the text.
+	 *
+	 * @throws IOException If the file could not be read.
+	 */
+	private void readEntity() throws IOException {
+		int start = text.length();
+		int c;
+
+		while ((c = read()) != ';') {
+			if (c == -1 || c == '<' || text.length() - start > 10) {
+				// Not a entity, so the ampersand is kept as it was.
+				text.insert(start, '&');
+
+				if (c != -1) {
+					position--;
+					column--;
+				}
+
+				return;
+			}
+
+			text.append((char) c);
+		}
+
+		String entity = text.substring(start);
+		text.setLength(start);
+
+		switch (entity) {
+			case "lt":
+				text.append('<');
+				break;
+			case "gt":
+				text.append('>');
+				break;
+			case "amp":
+				text.append('&');
+				break;
+			case "quot":
+				text.append('"');
+				break;
+			case "apos":
+				text.append('\'');
+				break;
+			default:
+				if (entity.startsWith("#")) {
+					try {
+						int code = entity.startsWith("#x") ? Integer.parseInt(entity.substring(2), 16) : Integer.parseInt(entity.substring(1));
+						text.appendCodePoint(code);
+						break;
+					} catch (IllegalArgumentException e) {
+						// Falls through to keep the entity as it was.
+					}
+				}
+
+				text.append('&').append(entity).append(';');
+		}
+	}
+
+	private String readName() throws IOException {
+		text.setLength(0);
+		int c;
+
+		while ((c = peek()) != -1 && !Character.isWhitespace(c) && c != '>' && c != '/' && c != '=') {
+			text.append((char) read());
+		}
+
+		if (text.length() == 0) {
+			throw error("Expected a name");
+		}
+
+		return intern(text);
+	}
+
+	/**
+	 * Gets the string for a element or attribute name, so every use of a name in the file shares one string and a repeated name does not allocate.
+	 *
+	 * @param chars The characters of the name.
+	 *
+	 * @return The shared string.
+	 */
+	private String intern(CharSequence chars) {
+		int length = chars.length();
+		int hash = 0;
+
+		for (int i = 0; i < length; i++) {
+			hash = 31 * hash + chars.charAt(i);
+		}
+
+		int mask = names.length - 1;
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		String name;
+
+		while ((name = names[slot]) != null) {
+			if (name.hashCode() == hash && name.contentEquals(chars)) {
+				return name;
+			}
+
+			slot = (slot + 1) & mask;
+		}
+
+		name = chars.toString();
+		names[slot] = name;
+		nameCount++;
+
+		// The table is kept at most half full, so probes stay short.
+		if (nameCount * 2 > names.length) {
+			String[] old = names;
+			names = new String[old.length * 2];
+			mask = names.length - 1;
+
+			for (String value : old) {
+				if (value != null) {
+					int h = value.hashCode();
+					slot = (h ^ (h >>> 16)) & mask;
+
+					while (names[slot] != null) {
+						slot = (slot + 1) & mask;
+					}
+
+					names[slot] = value;
+				}
+			}
+		}
+
+		return name;
+	}
+
+	private void skipDeclaration() throws IOException {
+		int depth = 0;
+		int c;
+
+		// Doctypes can hold a internal subset in brackets, which can itself contain '>'.
+		while ((c = read()) != -1) {
+			if (c == '[') {
+				depth++;
+			} else if (c == ']') {
+				depth--;
+			} else if (c == '>' && depth <= 0) {
+				return;
+			}
+		}
+
+		throw error("Unexpected end of file in declaration");
+	}
+
+	private void skipPast(String end) throws IOException {
+		int matched = 0;
+		int c;
+
+		while ((c = read()) != -1) {
+			if (c == end.charAt(matched)) {
+				matched++;
+
+				if (matched == end.length()) {
+					return;
+				}
+			} else {
+				matched = c == end.charAt(0) ? 1 : 0;
+			}
+		}
+
+		throw error("Unexpected end of file, expected " + end);
+	}
+
+	private boolean skipIf(String expected) throws IOException {
+		for (int i = 0; i < expected.length(); i++) {
+			if (peekAt(i) != expected.charAt(i)) {
+				return false;
+			}
+		}
+
+		for (int i = 0; i < expected.length(); i++) {
+			read();
+		}
+
+		return true;
+	}
+
+	private void skipWhitespace() throws IOException {
+		int c;
+
+		while ((c = peek()) != -1 && Character.isWhitespace(c)) {
+			read();
+		}
+	}
+
+	private void expect(char expected) throws IOException {
+		int c = read();
+
+		if (c != expected) {
+			throw error("Expected '" + expected + "' but found " + (c == -1 ? "end of file" : "'" + (char) c + "'"));
+		}
+	}
+
+	private int read() throws IOException {
+		if (position >= limit && !fill(1)) {
+			return -1;
+		}
+
+		char c = buffer[position++];
+
+		if (c == '\n') {
+			line++;
+			column = 0;
+		} else {
+			column++;
+		}
+
+		return c;
+	}
+
+	private int peek() throws IOException {
+		return peekAt(0);
+	}
+
+	private int peekAt(int offset) throws IOException {
+		if (position + offset >= limit && !fill(offset + 1)) {
+			return -1;
+		}
+
+		return buffer[position + offset];
+	}
+
+	/**
+	 * Reads more characters into the buffer, keeping the characters that have not been read yet.
+	 *
+	 * @param needed The number of unread characters needed.
+	 *
+	 * @return If the buffer now holds that many unread characters.
+	 *
+	 * @throws IOException If the reader failed.
+	 */
+	private boolean fill(int needed) throws IOException {
+		// One character is always kept before the position, so a read can be stepped back.
+		int keep = Math.max(position - 1, 0);
+		System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+		limit -= keep;
+		position -= keep;
+
+		while (limit - position < needed) {
+			int read = reader.read(buffer, limit, buffer.length - limit);
+
+			if (read == -1) {
+				return false;
+			}
+
+			limit += read;
+		}
+
+		return true;
+	}
+
+	private IOException error(String message) {
+		return new IOException(message + " at line " + line + ", column " + column + ".");
+	}
+
+	/**
+	 * Gets the last event read.
+	 *
+	 * @return The current event, null before the first call to {@link #next()}.
+	 */
+	public Event getEvent() {
+		return event;
+	}
+
+	/**
+	 * Gets the name of the current element, for start and end events.
+	 *
+	 * @return The element name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the text of the current text event, with entities replaced.
+	 *
+	 * @return The text.
+	 */
+	public String getText() {
+		return text.toString();
+	}
+
+	/**
+	 * Gets if the current text event is only whitespace.
+	 *
+	 * @return If the text is whitespace.
+	 */
+	public boolean isWhitespace() {
+		for (int i = 0; i < text.length(); i++) {
+			if (!Character.isWhitespace(text.charAt(i))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Gets the number of attributes on the current start element.
+	 *
+	 * @return The number of attributes.
+	 */
+	public int getAttributeCount() {
+		return attributeCount;
+	}
+
+	/**
+	 * Gets the name of a attribute on the current start element.
+	 *
+	 * @param index The attribute index.
+	 *
+	 * @return The attribute name.
+	 */
+	public String getAttributeName(int index) {
+		return attributeNames[index];
+	}
+
+	/**
+	 * Gets the value of a attribute on the current start element.
+	 *
+	 * @param index The attribute index.
+	 *
+	 * @return The attribute value.
+	 */
+	public String getAttributeValue(int index) {
+		return attributeValues[index];
+	}
+
+	/**
+	 * Gets the value of a attribute on the current start element by name.
+	 *
+	 * @param attribute The attribute name.
+	 *
+	 * @return The attribute value, or null if the element does not have it.
+	 */
+	public String getAttribute(String attribute) {
+		for (int i = 0; i < attributeCount; i++) {
+			if (attributeNames[i].equals(attribute)) {
+				return attributeValues[i];
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Gets how many elements are open, including the current start element.
+	 *
+	 * @return The element depth.
+	 */
+	public int getDepth() {
+		return elements.size();
+	}
+
+	/**
+	 * Gets the line the parser has read up to.
+	 *
+	 * @return The line number, starting at 1.
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
@@ -0,0 +1,256 @@
+package flounder.parsing.xml;
+
+import java.util.*;
+
+/**
+ * A compiled path used to find nodes below a {@link XmlNode}. Queries are compiled once and can be used on any number of nodes.
+ * Paths are a small part of XPath: steps of child names separated by '/', {@code *} to match any child, and predicates on attributes such as {@code [@id='cube']} or {@code [@id]}.
+ * For example {@code XmlQuery.compile("library_geometries/geometry[@id='cube']/mesh")}. Steps that check a attribute value use the attribute indexes of {@link XmlNode#getChildrenWithAttribute(String, String, String)}.
+ */
+public class XmlQuery {
+	private String path;
+	private Step[] steps;
+
+	private XmlQuery(String path, Step[] steps) {
+		this.path = path;
+		this.steps = steps;
+	}
+
+	/**
+	 * Compiles a path into a query.
+	 *
+	 * @param path The path to compile.
+	 *
+	 * @return The compiled query.
+	 *
+	 * @throws IllegalArgumentException If the path is not valid.
+	 */
+	public static XmlQuery compile(String path) {
+		List<Step> steps = new ArrayList<>();
+		int position = path.startsWith("/") ? 1 : 0;
+
+		while (position < path.length()) {
+			int end = position;
+			int depth = 0;
+			char quote = 0;
+
+			// Finds the next '/' that is not inside a predicate.
+			while (end < path.length() && (path.charAt(end) != '/' || depth > 0 || quote != 0)) {
+				char c = path.charAt(end);
+
+				if (quote != 0) {
+					if (c == quote) {
+						quote = 0;
+					}
+				} else if (c == '\'' || c == '"') {
+					quote = c;
+				} else if (c == '[') {
+					depth++;
+				} else if (c == ']') {
+					depth--;
+				}
+
+				end++;
+			}
+
+			steps.add(compileStep(path, path.substring(position, end).trim()));
+			position = end + 1;
+		}
+
+		if (steps.isEmpty()) {
+			throw new IllegalArgumentException("Xml query has no steps: " + path);
+		}
+
+		return new XmlQuery(path, steps.toArray(new Step[steps.size()]));
+	}
+
+	private static Step compileStep(String path, String step) {
+		int bracket = step.indexOf('[');
+		String name = (bracket == -1 ? step : step.substring(0, bracket)).trim();
+
+		if (name.isEmpty()) {
+			throw new IllegalArgumentException("Xml query has a empty step: " + path);
+		}
+
+		List<String> attributes = new ArrayList<>();
+		List<String> values = new ArrayList<>();
+
+		while (bracket != -1) {
+			int close = bracket + 1;
+			char quote = 0;
+
+			// A ']' inside a quoted value is not the end of the predicate.
+			while (close < step.length() && (step.charAt(close) != ']' || quote != 0)) {
+				char c = step.charAt(close);
+
+				if (quote != 0) {
+					if (c == quote) {
+						quote = 0;
+					}
+				} else if (c == '\'' || c == '"') {
+					quote = c;
+				}
+
+				close++;
+			}
+
+			if (close == step.length()) {
+				throw new IllegalArgumentException("Xml query has a unclosed predicate: " + path);
+			}
+
+			String predicate = step.substring(bracket + 1, close).trim();
+
+			if (!predicate.startsWith("@")) {
+				throw new IllegalArgumentException("Xml query predicates must test a attribute: " + path);
+			}
+
+			int equals = predicate.indexOf('=');
+
+			if (equals == -1) {
+				attributes.add(predicate.substring(1).trim());
+				values.add(null);
+			} else {
+				String value = predicate.substring(equals + 1).trim();
+
+				if (value.length() < 2 || (value.charAt(0) != '\'' && value.charAt(0) != '"') || value.charAt(value.length() - 1) != value.charAt(0)) {
+					throw new IllegalArgumentException("Xml query attribute values must be quoted: " + path);
+				}
+
+				attributes.add(predicate.substring(1, equals).trim());
+				values.add(value.substring(1, value.length() - 1));
+			}
+
+			bracket = step.indexOf('[', close);
+
+			if (bracket == -1 && close != step.length() - 1) {
+				throw new IllegalArgumentException("Xml query has text after a predicate: " + path);
+			}
+		}
+
+		return new Step(name.equals("*") ? null : name, attributes.toArray(new String[attributes.size()]), values.toArray(new String[values.size()]));
+	}
+
+	/**
+	 * Finds every node below a node that matches this query, in order.
+	 *
+	 * @param node The node to start from.
+	 *
+	 * @return The matching nodes, an empty list if none match.
+	 */
+	public List<XmlNode> select(XmlNode node) {
+		List<XmlNode> current = Collections.singletonList(node);
+
+		for (Step step : steps) {
+			List<XmlNode> next = new ArrayList<>();
+
+			for (XmlNode parent : current) {
+				for (XmlNode child : step.candidates(parent)) {
+					if (step.matches(child)) {
+						next.add(child);
+					}
+				}
+			}
+
+			if (next.isEmpty()) {
+				return next;
+			}
+
+			current = next;
+		}
+
+		return current;
+	}
+
+	/**
+	 * Finds the first node below a node that matches this query, without logging when none match.
+	 *
+	 * @param node The node to start from.
+	 *
+	 * @return The first matching node, or null if none match.
+	 */
+	public XmlNode selectFirst(XmlNode node) {
+		return selectFirst(node, 0);
+	}
+
+	private XmlNode selectFirst(XmlNode node, int depth) {
+		if (depth == steps.length) {
+			return node;
+		}
+
+		Step step = steps[depth];
+
+		for (XmlNode child : step.candidates(node)) {
+			if (step.matches(child)) {
+				XmlNode result = selectFirst(child, depth + 1);
+
+				if (result != null) {
+					return result;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Gets the path this query was compiled from.
+	 *
+	 * @return The path.
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	@Override
+	public String toString() {
+		return "XmlQuery{" + path + "}";
+	}
+
+	/**
+	 * A step in a query, matching children by name and attributes.
+	 */
+	private static class Step {
+		private String name;
+		private String[] attributes;
+		private String[] values;
+
+		private Step(String name, String[] attributes, String[] values) {
+			this.name = name;
+			this.attributes = attributes;
+			this.values = values;
+		}
+
+		/**
+		 * Gets the children of a node that could match this step, using a attribute index when a attribute value is checked.
+		 *
+		 * @param node The parent node.
+		 *
+		 * @return The possible matches.
+		 */
+		private List<XmlNode> candidates(XmlNode node) {
+			if (name == null) {
+				return node.getChildren();
+			}
+
+			for (int i = 0; i < attributes.length; i++) {
+				if (values[i] != null) {
+					return node.getChildrenWithAttribute(name, attributes[i], values[i]);
+				}
+			}
+
+			return node.getChildren(name);
+		}
+
+		private boolean matches(XmlNode node) {
+			for (int i = 0; i < attributes.length; i++) {
+				String value = node.getAttribute(attributes[i]);
+
+				if (value == null || (values[i] != null && !values[i].equals(value))) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package flounder.resources;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A source of files that can be mounted into the {@link VirtualFileSystem}, such as a directory or a archive.
+ */
+public interface IMount extends Closeable {
+	/**
+	 * Gets the path in the virtual file system that this mount's files are placed under.
+	 *
+	 * @return The mount point, starting with a '/'.
+	 */
+	String getMountPoint();
+
+	/**
+	 * Gets the priority of this mount, when two mounts have the same file the mount with the highest priority is used.
+	 *
+	 * @return The priority.
+	 */
+	int getPriority();
+
+	/**
+	 * Lists every file in this mount. This is called when the mount is mounted or refreshed, and may be slow.
+	 *
+	 * @return The files in the mount.
+	 *
+	 * @throws IOException If the mount could not be read.
+	 */
+	List<MountEntry> list() throws IOException;
+
+	/**
+	 * Opens a file in this mount.
+	 *
+	 * @param name The name of the file, relative to the mount.
+	 *
+	 * @return A input stream to the file.
+	 *
+	 * @throws IOException If the file could not be opened.
+	 */
+	InputStream open(String name) throws IOException;
+}
@@ -0,0 +1,87 @@
+package flounder.resources;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+/**
+ * A mount that reads files from a zip archive, this is used for zip files, jars and pack files. The archive is kept open while it is mounted, so opening a file does not read the archive's directory again.
+ */
+public class MountArchive implements IMount {
+	private File file;
+	private String mountPoint;
+	private int priority;
+	private ZipFile archive;
+
+	/**
+	 * Creates a new archive mount.
+	 *
+	 * @param file The archive to read files from.
+	 * @param mountPoint The path the archive's files are placed under.
+	 * @param priority The priority of this mount.
+	 *
+	 * @throws IOException If the archive could not be opened.
+	 */
+	public MountArchive(File file, String mountPoint, int priority) throws IOException {
+		this.file = file;
+		this.mountPoint = VirtualFileSystem.normalize(mountPoint);
+		this.priority = priority;
+		this.archive = new ZipFile(file);
+	}
+
+	@Override
+	public String getMountPoint() {
+		return mountPoint;
+	}
+
+	@Override
+	public int getPriority() {
+		return priority;
+	}
+
+	@Override
+	public List<MountEntry> list() {
+		List<MountEntry> entries = new ArrayList<>(archive.size());
+		Enumeration<? extends ZipEntry> enumeration = archive.entries();
+
+		while (enumeration.hasMoreElements()) {
+			ZipEntry entry = enumeration.nextElement();
+
+			if (!entry.isDirectory()) {
+				entries.add(new MountEntry(this, entry.getName(), entry.getSize(), entry.getTime()));
+			}
+		}
+
+		return entries;
+	}
+
+	@Override
+	public InputStream open(String name) throws IOException {
+		ZipEntry entry = archive.getEntry(name);
+
+		if (entry == null) {
+			throw new FileNotFoundException(name + " is not in " + file);
+		}
+
+		return archive.getInputStream(entry);
+	}
+
+	@Override
+	public void close() throws IOException {
+		archive.close();
+	}
+
+	/**
+	 * Gets the archive files are read from.
+	 *
+	 * @return The archive file.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	@Override
+	public String toString() {
+		return "MountArchive{" + "file=" + file + ", mountPoint=" + mountPoint + ", priority=" + priority + "}";
+	}
+}
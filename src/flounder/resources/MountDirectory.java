@@ -0,0 +1,82 @@
+package flounder.resources;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.*;
+
+/**
+ * A mount that reads loose files from a directory on disk.
+ */
+public class MountDirectory implements IMount {
+	private File directory;
+	private String mountPoint;
+	private int priority;
+
+	/**
+	 * Creates a new directory mount.
+	 *
+	 * @param directory The directory to read files from.
+	 * @param mountPoint The path the directory's files are placed under.
+	 * @param priority The priority of this mount.
+	 */
+	public MountDirectory(File directory, String mountPoint, int priority) {
+		this.directory = directory;
+		this.mountPoint = VirtualFileSystem.normalize(mountPoint);
+		this.priority = priority;
+	}
+
+	@Override
+	public String getMountPoint() {
+		return mountPoint;
+	}
+
+	@Override
+	public int getPriority() {
+		return priority;
+	}
+
+	@Override
+	public List<MountEntry> list() throws IOException {
+		List<MountEntry> entries = new ArrayList<>();
+		Path root = directory.toPath();
+
+		// The walk reads each file's attributes once, rather than a stat per file afterwards.
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+				if (attributes.isRegularFile()) {
+					String name = root.relativize(file).toString().replace(File.separatorChar, '/');
+					entries.add(new MountEntry(MountDirectory.this, name, attributes.size(), attributes.lastModifiedTime().toMillis()));
+				}
+
+				return FileVisitResult.CONTINUE;
+			}
+		});
+
+		return entries;
+	}
+
+	@Override
+	public InputStream open(String name) throws IOException {
+		return new FileInputStream(new File(directory, name));
+	}
+
+	@Override
+	public void close() {
+	}
+
+	/**
+	 * Gets the directory files are read from.
+	 *
+	 * @return The directory.
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	@Override
+	public String toString() {
+		return "MountDirectory{" + "directory=" + directory + ", mountPoint=" + mountPoint + ", priority=" + priority + "}";
+	}
+}
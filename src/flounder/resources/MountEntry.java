@@ -0,0 +1,91 @@
+package flounder.resources;
+
+import java.io.*;
+
+/**
+ * A file in the {@link VirtualFileSystem}, and the mount it is read from.
+ */
+public class MountEntry {
+	private IMount mount;
+	private String name;
+	private String path;
+	private long size;
+	private long lastModified;
+
+	/**
+	 * Creates a new mount entry.
+	 *
+	 * @param mount The mount the file is in.
+	 * @param name The name of the file, relative to the mount.
+	 * @param size The size of the file in bytes.
+	 * @param lastModified When the file was last modified, in milliseconds since the epoch.
+	 */
+	public MountEntry(IMount mount, String name, long size, long lastModified) {
+		this.mount = mount;
+		this.name = name;
+		this.path = VirtualFileSystem.normalize(mount.getMountPoint() + MyFile.FILE_SEPARATOR + name);
+		this.size = size;
+		this.lastModified = lastModified;
+	}
+
+	/**
+	 * Opens the file from its mount.
+	 *
+	 * @return A input stream to the file.
+	 *
+	 * @throws IOException If the file could not be opened.
+	 */
+	public InputStream open() throws IOException {
+		return mount.open(name);
+	}
+
+	/**
+	 * Gets the mount the file is in.
+	 *
+	 * @return The mount.
+	 */
+	public IMount getMount() {
+		return mount;
+	}
+
+	/**
+	 * Gets the name of the file, relative to its mount.
+	 *
+	 * @return The name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the path of the file in the virtual file system.
+	 *
+	 * @return The path, starting with a '/'.
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * Gets the size of the file.
+	 *
+	 * @return The size in bytes.
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Gets when the file was last modified.
+	 *
+	 * @return The time in milliseconds since the epoch.
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	@Override
+	public String toString() {
+		return "MountEntry{" + "path=" + path + ", mount=" + mount + "}";
+	}
+}
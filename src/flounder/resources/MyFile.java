@@ -89,13 +89,19 @@ public class MyFile {
 	}
 
 	/**
-	 * Gets a input steam to the file path.
+	 * Gets a input steam to the file path. The file is read from the {@link VirtualFileSystem} if a mount has it, otherwise from the class path or disk.
 	 *
 	 * @return Returns a input steam to the file path.
 	 */
 	public InputStream getInputStream() {
 		try {
-			InputStream is = Class.class.getResourceAsStream(path);
+			InputStream is = VirtualFileSystem.open(path);
+
+			if (is != null) {
+				return is;
+			}
+
+			is = Class.class.getResourceAsStream(path);
 
 			if (is != null) {
 				return is;
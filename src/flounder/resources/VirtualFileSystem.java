@@ -0,0 +1,256 @@
+package flounder.resources;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A virtual file system that directories and archives are mounted into, and that {@link MyFile} reads from before the class path and disk.
+ * Every file in every mount is indexed when it is mounted, so finding a file or checking when it was modified is a single map lookup. When more than one mount has a file, the mount with the highest priority wins, and of mounts with the same priority the last mounted wins.
+ * The index is replaced as a whole when mounts change, so it can be read from any thread without locking.
+ */
+public class VirtualFileSystem {
+	private static final List<IMount> mounts = new ArrayList<>();
+	private static final Map<IMount, List<MountEntry>> listings = new IdentityHashMap<>();
+	private static volatile Map<String, MountEntry> index = Collections.emptyMap();
+
+	private VirtualFileSystem() {
+	}
+
+	/**
+	 * Mounts a directory, or a zip, jar or pack archive.
+	 *
+	 * @param file The directory or archive.
+	 * @param mountPoint The path the files are placed under, for example {@code "res"}.
+	 * @param priority The priority of the mount.
+	 *
+	 * @return The new mount.
+	 *
+	 * @throws IOException If the file does not exist or could not be read.
+	 */
+	public static IMount mount(File file, String mountPoint, int priority) throws IOException {
+		if (!file.exists()) {
+			throw new FileNotFoundException("Can't mount " + file + ", it does not exist!");
+		}
+
+		IMount mount = file.isDirectory() ? new MountDirectory(file, mountPoint, priority) : new MountArchive(file, mountPoint, priority);
+
+		try {
+			mount(mount);
+		} catch (IOException e) {
+			mount.close();
+			throw e;
+		}
+
+		return mount;
+	}
+
+	/**
+	 * Mounts a mount, listing its files into the index.
+	 *
+	 * @param mount The mount to add.
+	 *
+	 * @throws IOException If the mount could not be listed.
+	 */
+	public static synchronized void mount(IMount mount) throws IOException {
+		List<MountEntry> entries = mount.list();
+		mounts.remove(mount);
+		mounts.add(mount);
+		listings.put(mount, entries);
+		rebuild();
+	}
+
+	/**
+	 * Removes a mount and closes it.
+	 *
+	 * @param mount The mount to remove.
+	 *
+	 * @throws IOException If the mount could not be closed.
+	 */
+	public static void unmount(IMount mount) throws IOException {
+		synchronized (VirtualFileSystem.class) {
+			if (!mounts.remove(mount)) {
+				return;
+			}
+
+			listings.remove(mount);
+			rebuild();
+		}
+
+		mount.close();
+	}
+
+	/**
+	 * Removes and closes every mount.
+	 */
+	public static void unmountAll() {
+		List<IMount> removed;
+
+		synchronized (VirtualFileSystem.class) {
+			removed = new ArrayList<>(mounts);
+			mounts.clear();
+			listings.clear();
+			rebuild();
+		}
+
+		for (IMount mount : removed) {
+			try {
+				mount.close();
+			} catch (IOException e) {
+				// The mount is already removed, so there is nothing else to do.
+			}
+		}
+	}
+
+	/**
+	 * Lists every mount again, so files added or removed on disk since they were mounted are seen.
+	 *
+	 * @throws IOException If a mount could not be listed.
+	 */
+	public static synchronized void refresh() throws IOException {
+		for (IMount mount : mounts) {
+			listings.put(mount, mount.list());
+		}
+
+		rebuild();
+	}
+
+	private static void rebuild() {
+		// A stable sort keeps the mount order for equal priorities, and later entries replace earlier ones.
+		List<IMount> ordered = new ArrayList<>(mounts);
+		ordered.sort(Comparator.comparingInt(IMount::getPriority));
+		Map<String, MountEntry> result = new HashMap<>();
+
+		for (IMount mount : ordered) {
+			for (MountEntry entry : listings.get(mount)) {
+				result.put(entry.getPath(), entry);
+			}
+		}
+
+		index = Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * Gets the entry for a path from the winning mount.
+	 *
+	 * @param path The path of the file.
+	 *
+	 * @return The entry, or null if no mount has the file.
+	 */
+	public static MountEntry getEntry(String path) {
+		Map<String, MountEntry> index = VirtualFileSystem.index;
+		return index.isEmpty() ? null : index.get(normalize(path));
+	}
+
+	/**
+	 * Gets if a mount has a file.
+	 *
+	 * @param path The path of the file.
+	 *
+	 * @return If the file exists in the virtual file system.
+	 */
+	public static boolean exists(String path) {
+		return getEntry(path) != null;
+	}
+
+	/**
+	 * Opens a file from the winning mount.
+	 *
+	 * @param path The path of the file.
+	 *
+	 * @return A input stream to the file, or null if no mount has the file.
+	 *
+	 * @throws IOException If the file is indexed but could not be opened.
+	 */
+	public static InputStream open(String path) throws IOException {
+		MountEntry entry = getEntry(path);
+		return entry == null ? null : entry.open();
+	}
+
+	/**
+	 * Gets the entries of every file under a directory, from the winning mounts.
+	 *
+	 * @param directory The path of the directory.
+	 *
+	 * @return The entries, in no particular order.
+	 */
+	public static List<MountEntry> list(String directory) {
+		String prefix = normalize(directory);
+		prefix = prefix.endsWith(MyFile.FILE_SEPARATOR) ? prefix : prefix + MyFile.FILE_SEPARATOR;
+		List<MountEntry> result = new ArrayList<>();
+
+		for (MountEntry entry : index.values()) {
+			if (entry.getPath().startsWith(prefix)) {
+				result.add(entry);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Gets the current mounts.
+	 *
+	 * @return The mounts, in the order they were mounted.
+	 */
+	public static synchronized List<IMount> getMounts() {
+		return new ArrayList<>(mounts);
+	}
+
+	/**
+	 * Gets the number of files in the index.
+	 *
+	 * @return The number of files.
+	 */
+	public static int getFileCount() {
+		return index.size();
+	}
+
+	/**
+	 * Normalizes a path to the form used in the index: starting with a single '/', separated by single '/'s, and with no '/' at the end.
+	 *
+	 * @param path The path to normalize.
+	 *
+	 * @return The normalized path.
+	 */
+	public static String normalize(String path) {
+		if (isNormal(path)) {
+			return path;
+		}
+
+		StringBuilder builder = new StringBuilder(path.length() + 1);
+
+		for (int i = 0; i < path.length(); i++) {
+			char c = path.charAt(i) == '\\' ? '/' : path.charAt(i);
+
+			if (c != '/' || builder.length() == 0 || builder.charAt(builder.length() - 1) != '/') {
+				if (builder.length() == 0 && c != '/') {
+					builder.append('/');
+				}
+
+				builder.append(c);
+			}
+		}
+
+		if (builder.length() > 1 && builder.charAt(builder.length() - 1) == '/') {
+			builder.setLength(builder.length() - 1);
+		}
+
+		return builder.length() == 0 ? MyFile.FILE_SEPARATOR : builder.toString();
+	}
+
+	private static boolean isNormal(String path) {
+		if (path.isEmpty() || path.charAt(0) != '/' || (path.length() > 1 && path.charAt(path.length() - 1) == '/')) {
+			return false;
+		}
+
+		for (int i = 1; i < path.length(); i++) {
+			char c = path.charAt(i);
+
+			if (c == '\\' || (c == '/' && path.charAt(i - 1) == '/')) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
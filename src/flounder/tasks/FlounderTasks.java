@@ -1,65 +1,456 @@
 package flounder.tasks;
 
 import flounder.framework.*;
+import flounder.logger.*;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 /**
- * A module used for managing tasks on framework updates.
+ * A module used for managing tasks on framework updates. Tasks can be queued to run on the main thread, or submitted with dependencies to a work stealing job pool.
  */
 public class FlounderTasks extends Module {
-	private List<ITask> tasks;
-	private List<ITask> clones;
+	public static final int PRIORITY_LOW = -10;
+	public static final int PRIORITY_NORMAL = 0;
+	public static final int PRIORITY_HIGH = 10;
+	public static final float DEFAULT_SLICE = 2.0f;
+
+	private final Queue<Change> inbox;
+	private Set<Object> removed;
+	private PriorityQueue<ScheduledTask> ready;
+	private PriorityQueue<ScheduledTask> delayedFrames;
+	private PriorityQueue<ScheduledTask> delayedTime;
+	private long frame;
+	private long sequence;
+	private float frameBudget;
+	private float resumableBudget;
+	private List<ResumableTask> resumables;
+	private int resumableStart;
+
+	private ForkJoinPool pool;
+	private final Queue<TaskGroup> renderBarriers;
 
 	/**
 	 * Creates a new event manager.
 	 */
 	public FlounderTasks() {
-		super();
+		super(FlounderLogger.class);
+		this.inbox = new ConcurrentLinkedQueue<>();
+		this.renderBarriers = new ConcurrentLinkedQueue<>();
 	}
 
 	@Handler.Function(Handler.FLAG_INIT)
 	public void init() {
-		this.tasks = new ArrayList<>();
-		this.clones = new ArrayList<>();
+		this.ready = new PriorityQueue<>((a, b) -> a.priority != b.priority ? Integer.compare(b.priority, a.priority) : Long.compare(a.sequence, b.sequence));
+		this.delayedFrames = new PriorityQueue<>((a, b) -> Long.compare(a.dueFrame, b.dueFrame));
+		this.delayedTime = new PriorityQueue<>((a, b) -> Float.compare(a.dueTime, b.dueTime));
+		this.removed = Collections.newSetFromMap(new IdentityHashMap<>());
+		this.frame = 0;
+		this.sequence = 0;
+		this.frameBudget = -1.0f;
+		this.resumableBudget = -1.0f;
+		this.resumables = new ArrayList<>();
+		this.resumableStart = 0;
+
+		AtomicInteger workers = new AtomicInteger();
+		this.pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), forkJoinPool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+			thread.setName("tasks-" + workers.getAndIncrement());
+			return thread;
+		}, null, true);
 	}
 
 	@Handler.Function(Handler.FLAG_UPDATE_PRE)
 	public void update() {
-		clones.clear();
-		clones.addAll(tasks);
+		long start = System.nanoTime();
+		frame++;
+
+		// Applies the tasks added and removed from any thread since the last update, in the order they were made. Tasks added while these run wait for the next update.
+		Change change;
+		float time = -1.0f;
+
+		while ((change = inbox.poll()) != null) {
+			if (change.scheduled == null && change.resumable == null) {
+				removed.add(change.task);
+				continue;
+			}
+
+			// Removals are applied together, but a task removed and then added again must keep the new add.
+			if (removed.contains(change.task)) {
+				applyRemovals();
+			}
+
+			if (change.resumable != null) {
+				resumables.add(change.resumable);
+				continue;
+			}
+
+			ScheduledTask scheduled = change.scheduled;
+			scheduled.sequence = sequence++;
+
+			if (scheduled.delayFrames > 0) {
+				scheduled.dueFrame = frame + scheduled.delayFrames;
+				delayedFrames.add(scheduled);
+			} else if (scheduled.delaySeconds > 0.0f) {
+				time = time < 0.0f ? Framework.get().getTimeSec() : time;
+				scheduled.dueTime = time + scheduled.delaySeconds;
+				delayedTime.add(scheduled);
+			} else {
+				ready.add(scheduled);
+			}
+		}
+
+		applyRemovals();
+
+		// Moves delayed tasks that are now due into the ready queue.
+		while (!delayedFrames.isEmpty() && delayedFrames.peek().dueFrame <= frame) {
+			ready.add(delayedFrames.poll());
+		}
+
+		if (!delayedTime.isEmpty()) {
+			time = time < 0.0f ? Framework.get().getTimeSec() : time;
+
+			while (!delayedTime.isEmpty() && delayedTime.peek().dueTime <= time) {
+				ready.add(delayedTime.poll());
+			}
+		}
+
+		// Runs ready tasks by priority, tasks that do not fit in the frame budget are carried over. At least one task runs every update.
+		long budget = frameBudget < 0.0f ? Long.MAX_VALUE : (long) (frameBudget * 1000000.0f);
+		boolean first = true;
+
+		while (!ready.isEmpty() && (first || System.nanoTime() - start < budget)) {
+			ready.poll().task.execute();
+			first = false;
+		}
+
+		if (!resumables.isEmpty()) {
+			long deadline = budget == Long.MAX_VALUE ? Long.MAX_VALUE : start + budget;
+
+			if (resumableBudget >= 0.0f) {
+				deadline = Math.min(deadline, System.nanoTime() + (long) (resumableBudget * 1000000.0f));
+			}
+
+			resume(deadline);
+		}
+	}
+
+	/**
+	 * Removes every queued copy of the removed tasks, then clears the removed set.
+	 */
+	private void applyRemovals() {
+		if (removed.isEmpty()) {
+			return;
+		}
+
+		ready.removeIf(next -> removed.contains(next.task));
+		delayedFrames.removeIf(next -> removed.contains(next.task));
+		delayedTime.removeIf(next -> removed.contains(next.task));
 
-		clones.forEach((task) -> {
-			task.execute();
-			tasks.remove(task);
-		});
+		if (resumables.removeIf(next -> removed.contains(next.task))) {
+			resumableStart = 0;
+		}
+
+		removed.clear();
 	}
 
 	/**
-	 * Adds an task to the que.
+	 * Resumes multi-update tasks for their slices until a deadline. Tasks take turns starting from where the last update stopped, so every task gets time even when not all fit in one update.
+	 * The first task always makes at least one step, so tasks make progress even when the budget is used up.
+	 *
+	 * @param deadline The time to stop starting new steps at, from {@link System#nanoTime()}.
+	 */
+	private void resume(long deadline) {
+		int count = resumables.size();
+		int index = resumableStart % count;
+		boolean anyFinished = false;
+
+		for (int n = 0; n < count; n++) {
+			long sliceStart = System.nanoTime();
+
+			if (n > 0 && sliceStart >= deadline) {
+				break;
+			}
+
+			ResumableTask next = resumables.get(index);
+			long sliceEnd = Math.min(sliceStart + next.slice, deadline);
+
+			do {
+				next.finished = next.task.step();
+			} while (!next.finished && System.nanoTime() < sliceEnd);
+
+			anyFinished |= next.finished;
+			index = (index + 1) % count;
+		}
+
+		resumableStart = index;
+
+		if (!anyFinished) {
+			return;
+		}
+
+		// Finished tasks are removed in one pass, keeping the place of the next task to resume.
+		int write = 0;
+		int start = 0;
+
+		for (int read = 0; read < count; read++) {
+			ResumableTask task = resumables.get(read);
+
+			if (read == index) {
+				start = write;
+			}
+
+			if (!task.finished) {
+				resumables.set(write++, task);
+			}
+		}
+
+		resumables.subList(write, count).clear();
+		resumableStart = write == 0 ? 0 : start % write;
+	}
+
+	/**
+	 * Adds an task to the que, this can be called from any thread.
 	 *
 	 * @param task The task to add.
 	 */
 	public void addTask(ITask task) {
-		this.tasks.add(task);
+		addTask(task, PRIORITY_NORMAL, 0, 0.0f);
+	}
+
+	/**
+	 * Adds an task to the que with a priority, tasks with a higher priority run first. This can be called from any thread.
+	 *
+	 * @param task The task to add.
+	 * @param priority The priority of the task, see {@link #PRIORITY_NORMAL}.
+	 */
+	public void addTask(ITask task, int priority) {
+		addTask(task, priority, 0, 0.0f);
+	}
+
+	/**
+	 * Adds an task to the que that runs after a number of updates, this can be called from any thread.
+	 *
+	 * @param task The task to add.
+	 * @param frames The number of updates to wait.
+	 */
+	public void addTaskAfterFrames(ITask task, int frames) {
+		addTask(task, PRIORITY_NORMAL, frames, 0.0f);
+	}
+
+	/**
+	 * Adds an task to the que that runs after a amount of time, this can be called from any thread.
+	 *
+	 * @param task The task to add.
+	 * @param seconds The amount of seconds to wait.
+	 */
+	public void addTaskAfterTime(ITask task, float seconds) {
+		addTask(task, PRIORITY_NORMAL, 0, seconds);
+	}
+
+	/**
+	 * Adds an task to the que, this can be called from any thread.
+	 *
+	 * @param task The task to add.
+	 * @param priority The priority of the task, see {@link #PRIORITY_NORMAL}.
+	 * @param frames The number of updates to wait, 0 to run on the next update.
+	 * @param seconds The amount of seconds to wait, used if no updates are waited for.
+	 */
+	public void addTask(ITask task, int priority, int frames, float seconds) {
+		inbox.offer(new Change(task, new ScheduledTask(task, priority, frames, seconds), null));
+	}
+
+	/**
+	 * Adds a task that runs in steps over many updates, with the default slice of {@link #DEFAULT_SLICE} milliseconds per update. This can be called from any thread.
+	 *
+	 * @param task The task to add.
+	 */
+	public void addResumableTask(ITaskResumable task) {
+		addResumableTask(task, DEFAULT_SLICE);
 	}
 
 	/**
-	 * Removes a task from the que.
+	 * Adds a task that runs in steps over many updates, steps are run each update until the task finishes or its slice of time is used up. This can be called from any thread.
+	 *
+	 * @param task The task to add.
+	 * @param slice The time the task may take each update, in milliseconds.
+	 */
+	public void addResumableTask(ITaskResumable task, float slice) {
+		inbox.offer(new Change(task, null, new ResumableTask(task, (long) (slice * 1000000.0f))));
+	}
+
+	/**
+	 * Removes a resumable task before it has finished, this can be called from any thread.
+	 *
+	 * @param task The task to remove.
+	 */
+	public void removeResumableTask(ITaskResumable task) {
+		inbox.offer(new Change(task, null, null));
+	}
+
+	/**
+	 * Removes a task from the que, this can be called from any thread.
 	 *
 	 * @param task The task to remove.
 	 */
 	public void removeTask(ITask task) {
-		this.tasks.remove(task);
+		inbox.offer(new Change(task, null, null));
+	}
+
+	/**
+	 * Waits for the task groups that must be finished before rendering. This runs before the render handlers of modules that depend on this one.
+	 */
+	@Handler.Function(Handler.FLAG_RENDER)
+	public void sync() {
+		TaskGroup group;
+
+		while ((group = renderBarriers.poll()) != null) {
+			group.await();
+		}
+	}
+
+	/**
+	 * Submits a task to run on the job pool, once all of its dependencies have finished. If a dependency fails the task is not run, and also counts as failed.
+	 *
+	 * @param task The task to run.
+	 * @param dependencies The tasks that must finish before this task runs.
+	 *
+	 * @return The handle to the submitted task.
+	 */
+	public TaskHandle submit(ITask task, TaskHandle... dependencies) {
+		CompletableFuture<Void> future;
+
+		if (dependencies.length == 0) {
+			future = CompletableFuture.runAsync(task::execute, pool);
+		} else {
+			CompletableFuture<?>[] waiting = new CompletableFuture<?>[dependencies.length];
+
+			for (int i = 0; i < dependencies.length; i++) {
+				waiting[i] = dependencies[i].getFuture();
+			}
+
+			future = CompletableFuture.allOf(waiting).thenRunAsync(task::execute, pool);
+		}
+
+		return new TaskHandle(future);
+	}
+
+	/**
+	 * Makes the next render wait for every task in a group to finish. The group is waited for once, and is emptied after.
+	 *
+	 * @param group The group to wait for.
+	 */
+	public void awaitBeforeRender(TaskGroup group) {
+		renderBarriers.offer(group);
+	}
+
+	/**
+	 * Gets the time that main thread tasks may take each update.
+	 *
+	 * @return The budget in milliseconds, -1 if all ready tasks run every update.
+	 */
+	public float getFrameBudget() {
+		return frameBudget;
+	}
+
+	/**
+	 * Sets the time that main thread tasks may take each update, tasks that do not fit are carried over to later updates. Resumable tasks count against this budget too.
+	 *
+	 * @param frameBudget The budget in milliseconds, -1 to run all ready tasks every update.
+	 */
+	public void setFrameBudget(float frameBudget) {
+		this.frameBudget = frameBudget;
+	}
+
+	/**
+	 * Gets the total time that all resumable tasks may take each update, as well as the frame budget.
+	 *
+	 * @return The budget in milliseconds, -1 if only the frame budget and each task's slice limit them.
+	 */
+	public float getResumableBudget() {
+		return resumableBudget;
+	}
+
+	/**
+	 * Sets the total time that all resumable tasks may take each update. Tasks that do not get a turn resume first on the next update.
+	 *
+	 * @param resumableBudget The budget in milliseconds, -1 if only the frame budget and each task's slice limit them.
+	 */
+	public void setResumableBudget(float resumableBudget) {
+		this.resumableBudget = resumableBudget;
 	}
 
 	@Handler.Function(Handler.FLAG_DISPOSE)
 	public void dispose() {
-		tasks.clear();
+		sync();
+		pool.shutdown();
+
+		try {
+			pool.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			FlounderLogger.get().exception(e);
+		}
+
+		inbox.clear();
+		ready.clear();
+		delayedFrames.clear();
+		delayedTime.clear();
+		resumables.clear();
 	}
 
 	@Instance
 	public static FlounderTasks get() {
 		return (FlounderTasks) Framework.get().getInstance(FlounderTasks.class);
 	}
+
+	/**
+	 * A task that has been added or removed, waiting to be applied on the main thread. A change with nothing scheduled is a removal.
+	 */
+	private static class Change {
+		private Object task;
+		private ScheduledTask scheduled;
+		private ResumableTask resumable;
+
+		private Change(Object task, ScheduledTask scheduled, ResumableTask resumable) {
+			this.task = task;
+			this.scheduled = scheduled;
+			this.resumable = resumable;
+		}
+	}
+
+	/**
+	 * A task waiting to be run on the main thread.
+	 */
+	private static class ScheduledTask {
+		private ITask task;
+		private int priority;
+		private int delayFrames;
+		private float delaySeconds;
+
+		private long sequence;
+		private long dueFrame;
+		private float dueTime;
+
+		private ScheduledTask(ITask task, int priority, int delayFrames, float delaySeconds) {
+			this.task = task;
+			this.priority = priority;
+			this.delayFrames = delayFrames;
+			this.delaySeconds = delaySeconds;
+		}
+	}
+
+	/**
+	 * A resumable task and the time it may run each update.
+	 */
+	private static class ResumableTask {
+		private ITaskResumable task;
+		private long slice;
+		private boolean finished;
+
+		private ResumableTask(ITaskResumable task, long slice) {
+			this.task = task;
+			this.slice = slice;
+		}
+	}
 }
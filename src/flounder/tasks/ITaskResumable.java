@@ -0,0 +1,14 @@
+package flounder.tasks;
+
+/**
+ * A task that is run in small steps on the main thread, so long jobs can be spread over many updates.
+ */
+@FunctionalInterface
+public interface ITaskResumable {
+	/**
+	 * Runs the next step of the task, this should keep its progress in the implementing object and return quickly.
+	 *
+	 * @return If the task has finished.
+	 */
+	boolean step();
+}
@@ -0,0 +1,77 @@
+package flounder.tasks;
+
+import java.util.*;
+
+/**
+ * A group of tasks submitted to the {@link FlounderTasks} job pool, that can be waited for together.
+ */
+public class TaskGroup {
+	private List<TaskHandle> handles;
+
+	/**
+	 * Creates a new empty task group.
+	 */
+	public TaskGroup() {
+		this.handles = new ArrayList<>();
+	}
+
+	/**
+	 * Submits a task to the job pool as part of this group.
+	 *
+	 * @param task The task to run.
+	 * @param dependencies The tasks that must finish before this task runs.
+	 *
+	 * @return The handle to the submitted task.
+	 */
+	public TaskHandle submit(ITask task, TaskHandle... dependencies) {
+		TaskHandle handle = FlounderTasks.get().submit(task, dependencies);
+		add(handle);
+		return handle;
+	}
+
+	/**
+	 * Adds a already submitted task to this group.
+	 *
+	 * @param handle The handle to the task.
+	 */
+	public synchronized void add(TaskHandle handle) {
+		handles.add(handle);
+	}
+
+	/**
+	 * Gets if every task in this group has finished.
+	 *
+	 * @return If the group is done.
+	 */
+	public synchronized boolean isDone() {
+		for (TaskHandle handle : handles) {
+			if (!handle.isDone()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Blocks the calling thread until every task in this group has finished, and then empties the group.
+	 *
+	 * @return If every task finished successfully.
+	 */
+	public boolean await() {
+		List<TaskHandle> waiting;
+
+		synchronized (this) {
+			waiting = new ArrayList<>(handles);
+			handles.clear();
+		}
+
+		boolean result = true;
+
+		for (TaskHandle handle : waiting) {
+			result &= handle.await();
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,64 @@
+package flounder.tasks;
+
+import flounder.logger.*;
+
+import java.util.concurrent.*;
+
+/**
+ * A handle to a task submitted to the {@link FlounderTasks} job pool, used to wait for the task or to make other tasks depend on it.
+ */
+public class TaskHandle {
+	private CompletableFuture<Void> future;
+
+	/**
+	 * Creates a new task handle.
+	 *
+	 * @param future The future that completes with the task.
+	 */
+	protected TaskHandle(CompletableFuture<Void> future) {
+		this.future = future;
+	}
+
+	/**
+	 * Gets if the task has finished, successfully or not.
+	 *
+	 * @return If the task is done.
+	 */
+	public boolean isDone() {
+		return future.isDone();
+	}
+
+	/**
+	 * Gets if the task, or one of the tasks it depends on, threw a exception.
+	 *
+	 * @return If the task failed.
+	 */
+	public boolean hasFailed() {
+		return future.isCompletedExceptionally();
+	}
+
+	/**
+	 * Blocks the calling thread until the task has finished. If the task failed the exception is logged.
+	 *
+	 * @return If the task finished successfully.
+	 */
+	public boolean await() {
+		try {
+			future.join();
+			return true;
+		} catch (CompletionException | CancellationException e) {
+			FlounderLogger.get().error("A task submitted to the job pool failed!");
+			FlounderLogger.get().exception(e);
+			return false;
+		}
+	}
+
+	/**
+	 * Gets the future that completes with the task.
+	 *
+	 * @return The future.
+	 */
+	protected CompletableFuture<Void> getFuture() {
+		return future;
+	}
+}
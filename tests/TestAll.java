@@ -0,0 +1,18 @@
+import flounder.events.*;
+import flounder.parsing.xml.*;
+import flounder.tasks.*;
+
+/**
+ * Runs every test, a test throws a error if it fails.
+ */
+public class TestAll {
+	public static void main(String[] args) throws Exception {
+		TestFlounderEvents.main(args);
+		TestTimingWheel.main(args);
+		TestXmlBinary.main(args);
+		TestXmlMappedDocument.main(args);
+		TestXmlNode.main(args);
+		TestXmlPullParser.main(args);
+		TestFlounderTasks.main(args);
+	}
+}
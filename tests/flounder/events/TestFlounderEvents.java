@@ -0,0 +1,118 @@
+package flounder.events;
+
+import flounder.framework.*;
+import flounder.framework.updater.*;
+
+import java.nio.file.*;
+
+/**
+ * Checks events added and removed in the same update are applied in order, so a event is never listed twice or lost.
+ */
+public class TestFlounderEvents {
+	public static void main(String[] args) throws Exception {
+		String home = System.getProperty("user.home");
+		System.setProperty("user.home", Files.createTempDirectory("flounder").toString());
+
+		try {
+			UpdaterDefault updater = new UpdaterDefault();
+			new Framework("test", updater, -1, new Extension[]{});
+			updater.setTiming(() -> System.nanoTime() * 1e-9);
+
+			testRemoveThenAdd();
+			testAddThenRemove();
+			testRemoveUnknown();
+			testDuplicates();
+		} finally {
+			System.setProperty("user.home", home);
+		}
+
+		System.out.println("TestFlounderEvents passed.");
+	}
+
+	private static void testRemoveThenAdd() {
+		FlounderEvents events = events();
+		Counter counter = new Counter();
+		events.addEvent(counter);
+		events.update();
+		check(counter.fired == 1, "Added event fired " + counter.fired + " times");
+
+		events.removeEvent(counter);
+		events.addEvent(counter);
+		events.update();
+		events.update();
+		check(counter.fired == 3, "Removed and added event fired " + counter.fired + " times over 3 updates");
+	}
+
+	private static void testAddThenRemove() {
+		FlounderEvents events = events();
+		Counter counter = new Counter();
+		events.addEvent(counter);
+		events.removeEvent(counter);
+		events.update();
+		check(counter.fired == 0, "Added and removed event fired " + counter.fired + " times");
+
+		events.addEvent(counter);
+		events.update();
+		events.removeEvent(counter);
+		events.addEvent(counter);
+		events.removeEvent(counter);
+		events.update();
+		check(counter.fired == 1, "Event fired " + counter.fired + " times after a remove, add, remove");
+	}
+
+	private static void testRemoveUnknown() {
+		FlounderEvents events = events();
+		Counter counter = new Counter();
+		events.removeEvent(counter);
+		events.addEvent(counter);
+		events.update();
+		check(counter.fired == 1, "Event removed before it was added fired " + counter.fired + " times");
+	}
+
+	private static void testDuplicates() {
+		FlounderEvents events = events();
+		Counter counter = new Counter();
+		events.addEvent(counter);
+		events.addEvent(counter);
+		events.update();
+		check(counter.fired == 2, "Event added twice fired " + counter.fired + " times");
+
+		events.removeEvent(counter);
+		events.update();
+		check(counter.fired == 3, "Removing one copy left " + (counter.fired - 2) + " copies");
+	}
+
+	private static FlounderEvents events() {
+		FlounderEvents events = new FlounderEvents();
+		events.init();
+		return events;
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+
+	/**
+	 * A event that fires every update and counts how often it fired.
+	 */
+	private static class Counter implements IEvent {
+		private int fired;
+
+		@Override
+		public boolean eventTriggered() {
+			return true;
+		}
+
+		@Override
+		public void onEvent() {
+			fired++;
+		}
+
+		@Override
+		public boolean removeAfterEvent() {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package flounder.events;
+
+import java.util.*;
+
+/**
+ * Checks timeouts in a {@link TimingWheel} run on their deadline, through cascades, repeats and cancels.
+ */
+public class TestTimingWheel {
+	public static void main(String[] args) {
+		testRepeatFromLastSlot();
+		testScheduleFromLastSlot();
+		testCascade();
+		testCancelInSameSlot();
+		testManyTimeouts();
+		System.out.println("TestTimingWheel passed.");
+	}
+
+	/**
+	 * A repeat with a interval of a whole level lands in the slot being run, and must wait for the next turn of the wheel.
+	 */
+	private static void testRepeatFromLastSlot() {
+		TimingWheel wheel = new TimingWheel(0);
+		List<Long> ticks = new ArrayList<>();
+		wheel.schedule(63, 64, () -> ticks.add(wheel.getCurrentTick()));
+		wheel.advance(200);
+		check(ticks.equals(Arrays.asList(63L, 127L, 191L)), "Repeat from slot 63 ran on " + ticks);
+	}
+
+	private static void testScheduleFromLastSlot() {
+		TimingWheel wheel = new TimingWheel(0);
+		List<Long> ticks = new ArrayList<>();
+		wheel.schedule(63, 0, () -> wheel.schedule(wheel.getCurrentTick() + 64, 0, () -> ticks.add(wheel.getCurrentTick())));
+		wheel.advance(100);
+		check(ticks.isEmpty(), "Timeout scheduled from slot 63 ran early on " + ticks);
+		wheel.advance(200);
+		check(ticks.equals(Collections.singletonList(127L)), "Timeout scheduled from slot 63 ran on " + ticks);
+		check(wheel.getSize() == 0, "Wheel still holds " + wheel.getSize() + " timeouts");
+	}
+
+	private static void testCascade() {
+		TimingWheel wheel = new TimingWheel(0);
+		long[] deadlines = {64, 65, 4095, 4096, 4097, 262143, 262144, 16777215, 16777216, 20000000};
+		List<Long> ticks = new ArrayList<>();
+
+		for (long deadline : deadlines) {
+			wheel.schedule(deadline, 0, () -> ticks.add(wheel.getCurrentTick()));
+		}
+
+		wheel.advance(30000000);
+		List<Long> expected = new ArrayList<>();
+
+		for (long deadline : deadlines) {
+			expected.add(deadline);
+		}
+
+		check(ticks.equals(expected), "Cascaded timeouts ran on " + ticks);
+	}
+
+	private static void testCancelInSameSlot() {
+		TimingWheel wheel = new TimingWheel(0);
+		List<String> ran = new ArrayList<>();
+		TimingWheel.Timeout[] later = new TimingWheel.Timeout[1];
+		// Slots run the last scheduled first, so the first scheduled is the one cancelled.
+		later[0] = wheel.schedule(10, 5, () -> ran.add("cancelled"));
+		wheel.schedule(10, 0, () -> {
+			ran.add("first");
+			later[0].cancel();
+		});
+		wheel.advance(100);
+		check(ran.equals(Collections.singletonList("first")), "Cancel in the same slot ran " + ran);
+		check(later[0].isCancelled() && wheel.getSize() == 0, "Cancelled repeat is still scheduled");
+	}
+
+	private static void testManyTimeouts() {
+		TimingWheel wheel = new TimingWheel(0);
+		Random random = new Random(4);
+		int count = 200000;
+		long[] fired = new long[count];
+		long[] deadlines = new long[count];
+
+		for (int i = 0; i < count; i++) {
+			int index = i;
+			deadlines[i] = random.nextInt(1 << 22);
+			wheel.schedule(deadlines[i], 0, () -> fired[index] = wheel.getCurrentTick());
+		}
+
+		long tick = 0;
+
+		while (tick < (1 << 22)) {
+			tick += 1 + random.nextInt(5000);
+			wheel.advance(tick);
+		}
+
+		for (int i = 0; i < count; i++) {
+			check(fired[i] == deadlines[i], "Timeout " + i + " due on " + deadlines[i] + " ran on " + fired[i]);
+		}
+
+		check(wheel.getSize() == 0, "Wheel still holds " + wheel.getSize() + " timeouts");
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+}
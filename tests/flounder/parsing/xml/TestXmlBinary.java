@@ -0,0 +1,147 @@
+package flounder.parsing.xml;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Checks a tree written by {@link XmlBinary} reads back the same as the tree {@link XmlParser} built from the text, and that broken files are refused.
+ */
+public class TestXmlBinary {
+	private static final String XML = "<?xml version=\"1.0\"?>\n" +
+			"<COLLADA version=\"1.4\">\n" +
+			"\t<asset><up_axis>Z_UP</up_axis></asset>\n" +
+			"\t<library_geometries>\n" +
+			"\t\t<geometry id=\"cube\" name=\"Cube &amp; co\">\n" +
+			"\t\t\t<mesh><float_array id=\"a\" count=\"3\">1 2 3</float_array><empty/></mesh>\n" +
+			"\t\t</geometry>\n" +
+			"\t\t<geometry id=\"sphere\"><mesh><![CDATA[<raw>]]></mesh></geometry>\n" +
+			"\t</library_geometries>\n" +
+			"\t<text lang=\"\u00e9\">\u00fcn\u00efc\u00f6d\u00e9 &#x4E2D;</text>\n" +
+			"</COLLADA>";
+
+	public static void main(String[] args) throws IOException {
+		testRoundTrip(parse(XML));
+		testRoundTrip(deep(2000));
+		testRoundTrip(wide(500));
+		testCompile();
+		testBroken();
+		System.out.println("TestXmlBinary passed.");
+	}
+
+	private static void testRoundTrip(XmlNode parsed) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		XmlBinary.write(parsed, output);
+		XmlNode read = XmlBinary.read(new ByteArrayInputStream(output.toByteArray()));
+		checkSame(parsed, read, parsed.getName());
+	}
+
+	private static void testCompile() throws IOException {
+		File source = File.createTempFile("binary", ".xml");
+		File target = new File(XmlBinary.getCompiledPath(source.getPath()));
+
+		try {
+			Files.write(source.toPath(), XML.getBytes(StandardCharsets.UTF_8));
+			XmlBinary.compile(source, target);
+			check(!new File(target.getPath() + ".tmp").exists(), "Temporary file was left behind");
+
+			try (InputStream input = new FileInputStream(target)) {
+				checkSame(parse(XML), XmlBinary.read(input), "COLLADA");
+			}
+		} finally {
+			source.delete();
+			target.delete();
+		}
+	}
+
+	private static void testBroken() throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		XmlBinary.write(parse(XML), output);
+		byte[] bytes = output.toByteArray();
+
+		checkRefused(Arrays.copyOf(bytes, bytes.length - 4), "truncated");
+		checkRefused(Arrays.copyOf(bytes, 10), "truncated");
+
+		// The string count, then the length of the first string, set to negative and to more than the file holds.
+		checkRefused(withInt(bytes, 8, -1), "string count -1");
+		checkRefused(withInt(bytes, 8, Integer.MAX_VALUE), "string count");
+		checkRefused(withInt(bytes, 12, -5), "string byte count -5");
+		checkRefused(withInt(bytes, 12, Integer.MAX_VALUE), "string byte count");
+		bytes[0] = 'X';
+		checkRefused(bytes, "Not a compiled XML file");
+	}
+
+	private static byte[] withInt(byte[] bytes, int offset, int value) {
+		byte[] result = bytes.clone();
+		result[offset] = (byte) (value >>> 24);
+		result[offset + 1] = (byte) (value >>> 16);
+		result[offset + 2] = (byte) (value >>> 8);
+		result[offset + 3] = (byte) value;
+		return result;
+	}
+
+	private static void checkRefused(byte[] bytes, String expected) {
+		try {
+			XmlBinary.read(new ByteArrayInputStream(bytes));
+			throw new AssertionError("Broken file was read");
+		} catch (IOException e) {
+			check(e.getMessage().contains(expected), "Broken file error was " + e.getMessage());
+		}
+	}
+
+	private static void checkSame(XmlNode expected, XmlNode actual, String path) {
+		check(expected.getName().equals(actual.getName()), path + " name read as " + actual.getName());
+		check(Objects.equals(expected.getData(), actual.getData()), path + " data read as " + actual.getData());
+		check(expected.getAttributeCount() == actual.getAttributeCount(), path + " has " + actual.getAttributeCount() + " attributes");
+
+		for (int i = 0; i < expected.getAttributeCount(); i++) {
+			check(expected.getAttributeName(i).equals(actual.getAttributeName(i)), path + " attribute " + i + " read as " + actual.getAttributeName(i));
+			check(expected.getAttributeValue(i).equals(actual.getAttributeValue(i)), path + " attribute " + expected.getAttributeName(i) + " read as " + actual.getAttributeValue(i));
+		}
+
+		check(expected.getChildCount() == actual.getChildCount(), path + " has " + actual.getChildCount() + " children");
+
+		for (int i = 0; i < expected.getChildCount(); i++) {
+			checkSame(expected.getChild(i), actual.getChild(i), path + "/" + expected.getChild(i).getName());
+		}
+	}
+
+	private static XmlNode deep(int depth) throws IOException {
+		StringBuilder xml = new StringBuilder();
+
+		for (int i = 0; i < depth; i++) {
+			xml.append("<n d='").append(i).append("'>");
+		}
+
+		xml.append("leaf");
+
+		for (int i = 0; i < depth; i++) {
+			xml.append("</n>");
+		}
+
+		return parse(xml.toString());
+	}
+
+	private static XmlNode wide(int count) throws IOException {
+		StringBuilder xml = new StringBuilder("<root>");
+
+		for (int i = 0; i < count; i++) {
+			xml.append("<item id='").append(i).append("'>").append(i % 7).append("</item>");
+		}
+
+		return parse(xml.append("</root>").toString());
+	}
+
+	private static XmlNode parse(String xml) throws IOException {
+		try (XmlPullParser parser = new XmlPullParser(new StringReader(xml))) {
+			return XmlParser.loadNode(parser);
+		}
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+}
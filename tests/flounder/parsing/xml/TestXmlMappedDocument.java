@@ -0,0 +1,78 @@
+package flounder.parsing.xml;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+/**
+ * Checks a {@link XmlMappedDocument} reads elements, and reports errors at the byte they are found without leaving the file open.
+ */
+public class TestXmlMappedDocument {
+	public static void main(String[] args) throws IOException {
+		testRead();
+		testError("<a></b>", "End tag does not match its start tag at byte 3");
+		testError("<a/><b/>", "More than one root element at byte 4");
+		testError("<a><b>", "Unexpected end of file, b was not closed at byte 6");
+		testError("", "No root element at byte 0");
+		testError("<a x='1'", "Unexpected end of file in start tag at byte 8");
+		testError("<a><!-- x", "Unexpected end of file, expected --> at byte 9");
+		testError("<a>< /a>", "Expected a name at byte 4");
+		testError("<?xml version=\"1.0\"?>\n<r>\n  <a></b>\n</r>", "End tag does not match its start tag at byte 31");
+		System.out.println("TestXmlMappedDocument passed.");
+	}
+
+	private static void testRead() throws IOException {
+		File file = write("<?xml version=\"1.0\"?>\n<!-- x -->\n<root v=\"1\">\n\t<item id='a'>one &amp; two</item>\n\t<item id='b'><![CDATA[<raw>]]></item>\n\t<empty/>\n</root>");
+
+		try (XmlMappedDocument document = XmlParser.loadMappedFile(file)) {
+			XmlMappedNode root = document.getRoot();
+			check(document.getElementCount() == 4, "Element count is " + document.getElementCount());
+			check(root.getName().equals("root") && "1".equals(root.getAttribute("v")), "Root read as " + root.getName());
+			check(root.getChildren("item").size() == 2, "Root has " + root.getChildren("item").size() + " items");
+			check("one & two".equals(root.getChild("item").getData()), "Item data read as " + root.getChild("item").getData());
+			check("<raw>".equals(root.getChildWithAttribute("item", "id", "b").getData()), "CDATA read as " + root.getChildWithAttribute("item", "id", "b").getData());
+			check(root.getChild("empty").getParent().getName().equals("root"), "Parent of empty is not root");
+			check(root.getChild("empty").getDocument() == document, "Node is not in its document");
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static void testError(String xml, String expected) throws IOException {
+		File file = write(xml);
+		int handles = countHandles();
+
+		try {
+			new XmlMappedDocument(file).close();
+			throw new AssertionError("No error for: " + xml);
+		} catch (IOException e) {
+			check(e.getMessage().startsWith(expected), "Error for '" + xml + "' was: " + e.getMessage());
+		} finally {
+			file.delete();
+		}
+
+		check(countHandles() == handles, "A file handle was left open after the error for: " + xml);
+	}
+
+	/**
+	 * Counts this process's open file handles, where the system shows them.
+	 *
+	 * @return The number of handles, or -1 if they can not be counted.
+	 */
+	private static int countHandles() {
+		String[] handles = new File("/proc/self/fd").list();
+		return handles == null ? -1 : handles.length;
+	}
+
+	private static File write(String xml) throws IOException {
+		File file = File.createTempFile("mapped", ".xml");
+		Files.write(file.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package flounder.parsing.xml;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Checks the name and attribute indexes of a {@link XmlNode} are built again when a child is added, can be read from many threads, and that children lists can be changed by the caller.
+ */
+public class TestXmlNode {
+	public static void main(String[] args) throws Exception {
+		testSmallNode();
+		testNameIndex();
+		testAttributeIndex();
+		testChildrenCopies(4);
+		testChildrenCopies(12);
+		testThreads();
+		System.out.println("TestXmlNode passed.");
+	}
+
+	private static void testSmallNode() {
+		XmlNode root = new XmlNode("root");
+		root.addChild(item("a"));
+		check(root.getChildrenWithAttribute("item", "id", "b").isEmpty(), "Found item b before it was added");
+
+		root.addChild(item("b"));
+		check(root.getChildrenWithAttribute("item", "id", "b").size() == 1, "Item b not found after it was added");
+		check(root.getChildren("item").size() == 2, "Small node has " + root.getChildren("item").size() + " items");
+	}
+
+	private static void testNameIndex() {
+		XmlNode root = new XmlNode("root");
+
+		for (int i = 0; i < 12; i++) {
+			root.addChild(item("i" + i));
+		}
+
+		check(root.getChildren("item").size() == 12, "Indexed node has " + root.getChildren("item").size() + " items");
+		check(root.getChildren("other").isEmpty(), "Found other before it was added");
+
+		root.addChild(new XmlNode("other"));
+		root.addChild(item("i12"));
+		check(root.getChildren("other").size() == 1, "Other not found after it was added");
+		check(root.getChildren("item").size() == 13, "Index has " + root.getChildren("item").size() + " items after adding one");
+		check(root.getChildren("item").get(12).getAttribute("id").equals("i12"), "Added item is not last");
+	}
+
+	private static void testAttributeIndex() {
+		XmlNode root = new XmlNode("root");
+
+		for (int i = 0; i < 12; i++) {
+			root.addChild(item("i" + i));
+		}
+
+		check(root.getChildrenWithAttribute("item", "id", "i3").size() == 1, "Item i3 not found");
+		check(root.getChildrenWithAttribute("item", "id", "new").isEmpty(), "Found item new before it was added");
+		check(root.getChildrenWithAttribute("item", "kind", "x").isEmpty(), "Found kind x before it was added");
+
+		root.addChild(item("new"));
+		XmlNode kind = item("k");
+		kind.addAttribute("kind", "x");
+		root.addChild(kind);
+		check(root.getChildrenWithAttribute("item", "id", "new").size() == 1, "Item new not found after it was added");
+		check(root.getChildrenWithAttribute("item", "kind", "x").size() == 1, "Kind x not found after it was added");
+		check(root.getChildrenWithAttribute("item", "id", "i3").size() == 1, "Item i3 not found after adding children");
+
+		try {
+			root.getChildrenWithAttribute("item", "id", "i3").add(item("bad"));
+			check(false, "Index list can be changed");
+		} catch (UnsupportedOperationException e) {
+			// Expected, index lists are shared between readers.
+		}
+	}
+
+	private static void testChildrenCopies(int count) {
+		XmlNode root = new XmlNode("root");
+
+		for (int i = 0; i < count; i++) {
+			root.addChild(item("i" + i));
+		}
+
+		List<XmlNode> items = root.getChildren("item");
+		items.remove(0);
+		items.add(item("extra"));
+		check(root.getChildren("item").size() == count, "Changing the list of " + count + " items changed the node");
+		check(root.getChildren("item").get(0).getAttribute("id").equals("i0"), "First of " + count + " items is not i0");
+
+		List<XmlNode> missing = root.getChildren("missing");
+		missing.add(item("extra"));
+		check(root.getChildren("missing").isEmpty(), "Changing the list of a missing name changed the node");
+	}
+
+	private static void testThreads() throws Exception {
+		int count = 64;
+		XmlNode root = new XmlNode("root");
+
+		for (int i = 0; i < count; i++) {
+			XmlNode child = item("i" + i);
+			child.addAttribute("group", Integer.toString(i % 4));
+			root.addChild(child);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<Boolean>> futures = new ArrayList<>();
+
+		for (int t = 0; t < 8; t++) {
+			int seed = t;
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < count; i++) {
+					int n = (i + seed * 7) % count;
+
+					if (root.getChildrenWithAttribute("item", "id", "i" + n).size() != 1 || root.getChildrenWithAttribute("item", "group", Integer.toString(n % 4)).size() != count / 4 || root.getChildren("item").size() != count) {
+						return false;
+					}
+				}
+
+				return true;
+			}));
+		}
+
+		for (Future<Boolean> future : futures) {
+			check(future.get(), "A thread read a wrong index");
+		}
+
+		executor.shutdown();
+	}
+
+	private static XmlNode item(String id) {
+		XmlNode node = new XmlNode("item");
+		node.addAttribute("id", id);
+		return node;
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+}
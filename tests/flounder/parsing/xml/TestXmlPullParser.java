@@ -0,0 +1,93 @@
+package flounder.parsing.xml;
+
+import java.io.*;
+
+/**
+ * Checks a {@link XmlPullParser} reads entities, CDATA sections and self closing elements, and reports badly formed files with their line.
+ */
+public class TestXmlPullParser {
+	public static void main(String[] args) throws IOException {
+		testEvents();
+		testEntities();
+		testCData();
+		testTree();
+		testError("<a></b>", "End tag b does not match a at line 1");
+		testError("<a></a></a>", "End tag a does not match any start tag at line 1");
+		testError("<a>\n<b>\n</a>", "End tag a does not match b at line 3");
+		testError("<a><b>", "Unexpected end of file, b was not closed");
+		testError("<a><![CDATA[x", "Unexpected end of file in CDATA section");
+		testError("<a x=1/>", "Attribute x in a is not quoted");
+		System.out.println("TestXmlPullParser passed.");
+	}
+
+	private static void testEvents() throws IOException {
+		try (XmlPullParser parser = parser("<?xml version=\"1.0\"?><!-- c --><a k='v'><b/>t</a>")) {
+			check(parser.next() == XmlPullParser.Event.START_ELEMENT && parser.getName().equals("a"), "Expected start of a");
+			check("v".equals(parser.getAttribute("k")) && parser.getAttributeCount() == 1, "Attribute k read as " + parser.getAttribute("k"));
+			check(parser.next() == XmlPullParser.Event.START_ELEMENT && parser.getName().equals("b"), "Expected start of b");
+			check(parser.next() == XmlPullParser.Event.END_ELEMENT && parser.getName().equals("b"), "Self closing b did not end");
+			check(parser.next() == XmlPullParser.Event.TEXT && parser.getText().equals("t"), "Expected text t");
+			check(parser.next() == XmlPullParser.Event.END_ELEMENT && parser.getName().equals("a"), "Expected end of a");
+			check(parser.next() == XmlPullParser.Event.END_DOCUMENT, "Expected end of document");
+		}
+	}
+
+	private static void testEntities() throws IOException {
+		check(text("<a>&lt;&gt;&amp;&quot;&apos;</a>").equals("<>&\"'"), "Named entities read as " + text("<a>&lt;&gt;&amp;&quot;&apos;</a>"));
+		check(text("<a>&#65;&#x42;&#x1F600;</a>").equals("AB\uD83D\uDE00"), "Numeric entities read as " + text("<a>&#65;&#x42;&#x1F600;</a>"));
+		check(text("<a>&unknown; &#xZZ;</a>").equals("&unknown; &#xZZ;"), "Unknown entities read as " + text("<a>&unknown; &#xZZ;</a>"));
+		check(text("<a>fish & chips</a>").equals("fish & chips"), "Bare ampersand read as " + text("<a>fish & chips</a>"));
+		check(text("<a>a&</a>").equals("a&"), "Ampersand before a tag read as " + text("<a>a&</a>"));
+
+		try (XmlPullParser parser = parser("<a v=\"1 &lt; 2 &amp;&#33;\"/>")) {
+			parser.next();
+			check("1 < 2 &!".equals(parser.getAttribute("v")), "Attribute entities read as " + parser.getAttribute("v"));
+		}
+	}
+
+	private static void testCData() throws IOException {
+		check(text("<a><![CDATA[<b>&amp;</b>]]></a>").equals("<b>&amp;</b>"), "CDATA read as " + text("<a><![CDATA[<b>&amp;</b>]]></a>"));
+		check(text("<a><![CDATA[x]]y]]]></a>").equals("x]]y]"), "CDATA with brackets read as " + text("<a><![CDATA[x]]y]]]></a>"));
+
+		try (XmlPullParser parser = parser("<a><![CDATA[]]></a>")) {
+			parser.next();
+			check(parser.next() == XmlPullParser.Event.TEXT && parser.getText().isEmpty(), "Empty CDATA read as " + parser.getText());
+		}
+	}
+
+	private static void testTree() throws IOException {
+		try (XmlPullParser parser = parser("<r>\n\t<i id='1'>one &amp; <![CDATA[<two>]]></i>\n\t<i id='2'/>\n</r>")) {
+			XmlNode root = XmlParser.loadNode(parser);
+			check(root.getChildCount() == 2, "Root has " + root.getChildCount() + " children");
+			check("one & <two>".equals(root.getChildWithAttribute("i", "id", "1").getData()), "Mixed data read as " + root.getChildWithAttribute("i", "id", "1").getData());
+			check(root.getData() == null, "Whitespace between children was kept as " + root.getData());
+		}
+	}
+
+	private static void testError(String xml, String expected) {
+		try (XmlPullParser parser = parser(xml)) {
+			while (parser.next() != XmlPullParser.Event.END_DOCUMENT) {
+			}
+
+			throw new AssertionError("No error for " + xml);
+		} catch (IOException e) {
+			check(e.getMessage().startsWith(expected), "Error for " + xml + " was " + e.getMessage());
+		}
+	}
+
+	private static String text(String xml) throws IOException {
+		try (XmlPullParser parser = parser(xml)) {
+			return XmlParser.loadNode(parser).getData();
+		}
+	}
+
+	private static XmlPullParser parser(String xml) {
+		return new XmlPullParser(new StringReader(xml));
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+}
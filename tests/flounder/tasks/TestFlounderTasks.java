@@ -0,0 +1,98 @@
+package flounder.tasks;
+
+import flounder.framework.*;
+import flounder.framework.updater.*;
+
+import java.nio.file.*;
+
+/**
+ * Checks tasks added and removed in the same update are applied in the order they were made.
+ */
+public class TestFlounderTasks {
+	public static void main(String[] args) throws Exception {
+		String home = System.getProperty("user.home");
+		System.setProperty("user.home", Files.createTempDirectory("flounder").toString());
+
+		try {
+			UpdaterDefault updater = new UpdaterDefault();
+			new Framework("test", updater, -1, new Extension[]{});
+			updater.setTiming(() -> System.nanoTime() * 1e-9);
+
+			testRemoveThenAdd();
+			testAddThenRemove();
+			testResumable();
+		} finally {
+			System.setProperty("user.home", home);
+		}
+
+		System.out.println("TestFlounderTasks passed.");
+	}
+
+	private static void testRemoveThenAdd() {
+		FlounderTasks tasks = tasks();
+		int[] runs = new int[1];
+		ITask task = () -> runs[0]++;
+
+		tasks.removeTask(task);
+		tasks.addTask(task);
+		tasks.update();
+		check(runs[0] == 1, "Task removed then added ran " + runs[0] + " times");
+
+		tasks.addTask(task);
+		tasks.removeTask(task);
+		tasks.addTask(task);
+		tasks.update();
+		check(runs[0] == 2, "Task added, removed and added ran " + (runs[0] - 1) + " times");
+
+		tasks.addTaskAfterFrames(task, 1);
+		tasks.update();
+		tasks.removeTask(task);
+		tasks.addTaskAfterFrames(task, 1);
+		tasks.update();
+		check(runs[0] == 2, "Delayed task ran before its frame");
+		tasks.update();
+		check(runs[0] == 3, "Delayed task removed then added ran " + (runs[0] - 2) + " times");
+		tasks.dispose();
+	}
+
+	private static void testAddThenRemove() {
+		FlounderTasks tasks = tasks();
+		int[] runs = new int[1];
+		ITask task = () -> runs[0]++;
+
+		tasks.addTask(task);
+		tasks.removeTask(task);
+		tasks.update();
+		check(runs[0] == 0, "Task added then removed ran " + runs[0] + " times");
+		tasks.dispose();
+	}
+
+	private static void testResumable() {
+		FlounderTasks tasks = tasks();
+		int[] steps = new int[1];
+		ITaskResumable task = () -> ++steps[0] >= 100;
+
+		tasks.addResumableTask(task);
+		tasks.removeResumableTask(task);
+		tasks.update();
+		check(steps[0] == 0, "Resumable task added then removed made " + steps[0] + " steps");
+
+		tasks.removeResumableTask(task);
+		tasks.addResumableTask(task);
+		tasks.update();
+		check(steps[0] > 0, "Resumable task removed then added made no steps");
+		tasks.dispose();
+	}
+
+	private static FlounderTasks tasks() {
+		FlounderTasks tasks = new FlounderTasks();
+		tasks.init();
+		return tasks;
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+}